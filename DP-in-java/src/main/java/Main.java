@@ -1,12 +1,26 @@
 import dynamicprograming.BuySellDays.BuySellDays;
+import dynamicprograming.BuySellDays.MappedBuySellDays;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Random;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("Hello world");
 
+        // Run over a binary file of little-endian doubles, if one is given.
+        if (args.length > 0) {
+            long startTime = System.nanoTime();
+            long[] days = new MappedBuySellDays(Paths.get(args[0])).DP();
+            long endTime = System.nanoTime();
+            System.out.println("Days to buy and sell: " + Arrays.toString(days));
+            System.out.println("Mapped DP duration: " + (double)(endTime-startTime)/1_000_000);
+            return;
+        }
+
         Random rd = new Random();
         int numOfDays = 1_000_000;
         double rangeMinValue = -10;
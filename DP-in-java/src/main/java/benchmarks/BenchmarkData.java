@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates inputs for the benchmarks. A fixed seed is used so every fork sees the same data.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42;
+
+    // Prices will be in between these amounts, as in BuySellDays.Runtimes.
+    static final double RANGE_MIN_VALUE = -10;
+    static final double RANGE_MAX_VALUE = 200;
+
+    private BenchmarkData() {
+
+    }
+
+    static double[] prices(int numOfDays) {
+        Random rd = new Random(SEED);
+        double[] prices = new double[numOfDays];
+        for (int i=0; i<prices.length; i++) {
+            prices[i] = RANGE_MIN_VALUE + (RANGE_MAX_VALUE - RANGE_MIN_VALUE) * rd.nextDouble();
+        }
+        return prices;
+    }
+
+    /**
+     * A random string of the given length, using the characters of alphabet.
+     */
+    static String string(int length, String alphabet, long seed) {
+        Random rd = new Random(seed);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i=0; i<length; i++) {
+            sb.append(alphabet.charAt(rd.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Random lowercase words of 1 to 10 characters.
+     */
+    static String[] words(int numOfWords) {
+        Random rd = new Random(SEED);
+        String[] words = new String[numOfWords];
+        for (int i=0; i<words.length; i++) {
+            words[i] = string(1 + rd.nextInt(10), "abcdefghijklmnopqrstuvwxyz", rd.nextLong());
+        }
+        return words;
+    }
+}
@@ -0,0 +1,148 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.annotations.Mode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the JMH benchmarks of this package and writes the results under test_results/jmh.
+ *
+ * Build and run with:
+ *      mvn -P benchmarks package
+ *      java -jar target/benchmarks.jar [benchmark regex]
+ *
+ * Three kinds of results are written:
+ *      results.json            - the full JMH results, including the GC profiler's allocation rates.
+ *      [Benchmark].[method].csv - the same format as BuySellDays.Runtimes: the first row contains the
+ *                                test sizes, following rows contain the runtime (ms) of each
+ *                                measurement iteration. Benchmarks with parameters besides size
+ *                                get one file per parameter value, e.g. [method]-threads=4.csv.
+ *      [Benchmark].[method].alloc.csv - the same, with the bytes allocated per operation
+ *                                (gc.alloc.rate.norm) of each measurement iteration.
+ */
+public class BenchmarkRunner {
+
+    static String OUTPUT_DIRECTORY = "test_results/jmh/";
+    static String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*Benchmark";
+        new File(OUTPUT_DIRECTORY).mkdirs();
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(2)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .jvmArgsAppend("-Xmx4g")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(OUTPUT_DIRECTORY + "results.json")
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+        writeCsvResults(results);
+    }
+
+    /**
+     * Write one csv file per benchmark method, with one column per size.
+     */
+    private static void writeCsvResults(Collection<RunResult> results) {
+        // Benchmark name -> size -> runtimes of each iteration.
+        Map<String, TreeMap<Integer, List<Double>>> runtimes = new TreeMap<>();
+        // Benchmark name -> size -> bytes allocated per operation of each iteration.
+        Map<String, TreeMap<Integer, List<Double>>> allocations = new TreeMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            // Parameters other than size get their own file.
+            for (String key : result.getParams().getParamsKeys()) {
+                if (!key.equals("size")) {
+                    benchmark += "-" + key + "=" + result.getParams().getParam(key);
+                }
+            }
+            int size = Integer.parseInt(result.getParams().getParam("size"));
+
+            List<Double> iterations = new ArrayList<>();
+            List<Double> allocated = new ArrayList<>();
+            for (BenchmarkResult benchmarkResult : result.getBenchmarkResults()) {
+                for (IterationResult iteration : benchmarkResult.getIterationResults()) {
+                    iterations.add(iteration.getPrimaryResult().getScore());
+                    Result allocRate = iteration.getSecondaryResults().get(ALLOC_RATE_NORM);
+                    if (allocRate != null) {
+                        allocated.add(allocRate.getScore());
+                    }
+                }
+            }
+            runtimes.computeIfAbsent(benchmark, k -> new TreeMap<>()).put(size, iterations);
+            if (!allocated.isEmpty()) {
+                allocations.computeIfAbsent(benchmark + ".alloc", k -> new TreeMap<>()).put(size, allocated);
+            }
+        }
+        writeCsvFiles(runtimes);
+        writeCsvFiles(allocations);
+    }
+
+    /**
+     * Write one csv file per benchmark name, with one column per size.
+     */
+    private static void writeCsvFiles(Map<String, TreeMap<Integer, List<Double>>> values) {
+        for (Map.Entry<String, TreeMap<Integer, List<Double>>> entry : values.entrySet()) {
+            TreeMap<Integer, List<Double>> sizes = entry.getValue();
+            int numOfRows = Integer.MAX_VALUE;
+            for (List<Double> iterations : sizes.values()) {
+                numOfRows = Math.min(numOfRows, iterations.size());
+            }
+
+            try (PrintWriter pw = new PrintWriter(new File(OUTPUT_DIRECTORY + entry.getKey() + ".csv"))) {
+                StringBuilder sb = new StringBuilder();
+                // Write header
+                appendRow(sb, new ArrayList<Object>(sizes.keySet()));
+                // Write one row per iteration
+                for (int i=0; i<numOfRows; i++) {
+                    List<Object> row = new ArrayList<>();
+                    for (List<Double> iterations : sizes.values()) {
+                        row.add(iterations.get(i));
+                    }
+                    sb.append("\n");
+                    appendRow(sb, row);
+                }
+                pw.write(sb.toString());
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void appendRow(StringBuilder sb, List<Object> values) {
+        for (int i=0; i<values.size(); i++) {
+            sb.append(values.get(i));
+            if (i < values.size() - 1) {
+                sb.append(',');
+            }
+        }
+    }
+}
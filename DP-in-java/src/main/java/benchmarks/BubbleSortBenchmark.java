@@ -0,0 +1,34 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import sorting.Sort;
+
+/**
+ * Benchmarks the O(n^2) sort, over smaller sizes than SortBenchmark.
+ */
+@State(Scope.Benchmark)
+public class BubbleSortBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int size;
+
+    double[] input;
+    double[] array;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkData.prices(size);
+        array = new double[size];
+    }
+
+    @Benchmark
+    public double[] bubbleSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        Sort.bubbleSort(array);
+        return array;
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import dynamicprograming.BuySellDays.BuySellDays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the O(nlogn) and O(n) Buy-Sell-Days solutions, over the test sizes used by Runtimes.
+ */
+@State(Scope.Benchmark)
+public class BuySellDaysBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    int size;
+
+    BuySellDays bsd;
+
+    @Setup
+    public void setup() {
+        bsd = new BuySellDays(BenchmarkData.prices(size));
+    }
+
+    @Benchmark
+    public int[] DNC() {
+        return bsd.DNC();
+    }
+
+    @Benchmark
+    public int[] DP() {
+        return bsd.DP();
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import dynamicprograming.LongestCommonSubsequence.BitParallelLCS;
+import dynamicprograming.LongestCommonSubsequence.LCS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the LCS length of two random DNA strings of the same length, including allocating the
+ * dpMatrix or computing the match masks.
+ */
+@State(Scope.Benchmark)
+public class LCSBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    int size;
+
+    String X, Y;
+
+    @Setup
+    public void setup() {
+        X = BenchmarkData.string(size, "acgt", BenchmarkData.SEED);
+        Y = BenchmarkData.string(size, "acgt", BenchmarkData.SEED + 1);
+    }
+
+    @Benchmark
+    public int computeLCS() {
+        LCS lcs = new LCS(X, Y);
+        lcs.computeLCS();
+        return lcs.getLCSLength();
+    }
+
+    @Benchmark
+    public int bitParallelLCS() {
+        return new BitParallelLCS(X).lcsLength(Y);
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import dynamicprograming.PrettyPrint.Penalty;
+import dynamicprograming.PrettyPrint.PrettyPrint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the two PrettyPrint solvers on book-length random words with a squared penalty: computeOPT
+ * takes O(n*lineLength) time, computeConvexOPT O(n log n).
+ */
+@State(Scope.Benchmark)
+public class LineBreakingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"40", "1000"})
+    int lineLength;
+
+    String[] text;
+
+    @Setup
+    public void setup() {
+        text = BenchmarkData.words(size);
+    }
+
+    @Benchmark
+    public double scan() {
+        PrettyPrint pp = new PrettyPrint(lineLength, text, Penalty.power(2));
+        pp.computeSlackValues();
+        pp.computeOPT();
+        return pp.getOptimalCost();
+    }
+
+    @Benchmark
+    public double convex() {
+        PrettyPrint pp = new PrettyPrint(lineLength, text, Penalty.power(2));
+        pp.computeSlackValues();
+        pp.computeConvexOPT();
+        return pp.getOptimalCost();
+    }
+}
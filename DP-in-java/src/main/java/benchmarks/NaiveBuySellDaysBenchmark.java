@@ -0,0 +1,31 @@
+package benchmarks;
+
+import dynamicprograming.BuySellDays.BuySellDays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the O(n^2) Buy-Sell-Days solution. Kept apart from BuySellDaysBenchmark since it is
+ * far too slow for the larger test sizes.
+ */
+@State(Scope.Benchmark)
+public class NaiveBuySellDaysBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int size;
+
+    BuySellDays bsd;
+
+    @Setup
+    public void setup() {
+        bsd = new BuySellDays(BenchmarkData.prices(size));
+    }
+
+    @Benchmark
+    public int[] Naive() {
+        return bsd.Naive();
+    }
+}
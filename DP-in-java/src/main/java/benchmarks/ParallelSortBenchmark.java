@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import sorting.ParallelSort;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how ParallelSort scales with the number of threads in its pool.
+ */
+@State(Scope.Benchmark)
+public class ParallelSortBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int size;
+
+    @Param({"1", "4", "16", "32"})
+    int threads;
+
+    double[] input;
+    double[] array;
+    ForkJoinPool pool;
+    ParallelSort parallelSort;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkData.prices(size);
+        array = new double[size];
+        pool = new ForkJoinPool(threads);
+        parallelSort = new ParallelSort(pool, ParallelSort.DEFAULT_THRESHOLD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] parallelSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        parallelSort.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import dynamicprograming.PrettyPrint.PrettyPrint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks PrettyPrint on random words with 40 character lines, from construction to paragraph.
+ */
+@State(Scope.Benchmark)
+public class PrettyPrintBenchmark {
+
+    static final int LINE_LENGTH = 40;
+
+    @Param({"100", "2000", "100000"})
+    int size;
+
+    String[] text;
+
+    @Setup
+    public void setup() {
+        text = BenchmarkData.words(size);
+    }
+
+    @Benchmark
+    public String prettyPrint() {
+        PrettyPrint pp = new PrettyPrint(LINE_LENGTH, text);
+        pp.computeSlackValues();
+        pp.computeOPT();
+        return pp.getParagraph();
+    }
+}
@@ -0,0 +1,302 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares benchmark results against a stored baseline, and fails if they have regressed.
+ *
+ * Both directories hold csv files in the format written by BuySellDays.Runtimes and BenchmarkRunner:
+ * the first row contains the test sizes, following rows contain one runtime per size. Each csv file
+ * of the current directory is compared with the file of the same name in the baseline directory.
+ *
+ * For each file:
+ *      - the median and 90th percentile runtime of each size are compared. A size regresses if either
+ *        grew by more than the threshold (e.g. 0.1 for 10%). Sizes whose baseline median is below
+ *        minMillis are skipped, as their timings are mostly noise.
+ *      - the growth exponent k of runtime ~ size^k is estimated by least squares on
+ *        log(size), log(median runtime). The file regresses if k grew by more than exponentThreshold,
+ *        which catches e.g. an O(n) algorithm degrading to O(n^2) even if the tested sizes are small.
+ *        Both runs are fit over the same sizes: those in both files whose baseline median is at least
+ *        minMillis. The check is skipped if fewer than two such sizes remain.
+ *
+ * Files ending in .alloc.csv hold the bytes allocated per operation (the GC profiler's
+ * gc.alloc.rate.norm) instead of runtimes. A size regresses if its median allocation grew by more than
+ * the threshold and by more than MIN_ALLOC_BYTES, so that allocation free benchmarks stay comparable.
+ *
+ * Usage:
+ *      RegressionGate baselineDir currentDir [threshold] [exponentThreshold] [minMillis]
+ * Exits with status 1 if anything regressed, and 2 if the arguments or files are invalid, including when
+ * the baseline directory is missing or no file had a baseline to compare with.
+ */
+public class RegressionGate {
+
+    static double DEFAULT_THRESHOLD = 0.10;
+    static double DEFAULT_EXPONENT_THRESHOLD = 0.25;
+    static double DEFAULT_MIN_MILLIS = 0.05;
+    // Allocation changes below this many bytes per operation are ignored, e.g. from the profiler itself.
+    static double MIN_ALLOC_BYTES = 64;
+    static String ALLOC_SUFFIX = ".alloc.csv";
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RegressionGate baselineDir currentDir [threshold] [exponentThreshold] [minMillis]");
+            System.exit(2);
+        }
+        File baselineDir = new File(args[0]);
+        File currentDir = new File(args[1]);
+        double threshold = DEFAULT_THRESHOLD;
+        double exponentThreshold = DEFAULT_EXPONENT_THRESHOLD;
+        double minMillis = DEFAULT_MIN_MILLIS;
+        try {
+            threshold = args.length > 2 ? Double.parseDouble(args[2]) : threshold;
+            exponentThreshold = args.length > 3 ? Double.parseDouble(args[3]) : exponentThreshold;
+            minMillis = args.length > 4 ? Double.parseDouble(args[4]) : minMillis;
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid threshold: " + e.getMessage());
+            System.exit(2);
+        }
+        if (!baselineDir.isDirectory()) {
+            System.err.println("Baseline directory not found: " + baselineDir);
+            System.exit(2);
+        }
+
+        File[] currentFiles = currentDir.listFiles((dir, name) -> name.endsWith(".csv"));
+        if (currentFiles == null || currentFiles.length == 0) {
+            System.err.println("No csv files found in " + currentDir);
+            System.exit(2);
+        }
+        Arrays.sort(currentFiles);
+
+        boolean regressed = false;
+        int numOfCompared = 0;
+        try {
+            for (File currentFile : currentFiles) {
+                File baselineFile = new File(baselineDir, currentFile.getName());
+                if (!baselineFile.exists()) {
+                    System.out.println(currentFile.getName() + ": no baseline, skipped");
+                    continue;
+                }
+                List<String> report = new ArrayList<>();
+                boolean fileRegressed = currentFile.getName().endsWith(ALLOC_SUFFIX)
+                        ? compareAllocations(read(baselineFile), read(currentFile), threshold, report)
+                        : compare(read(baselineFile), read(currentFile), threshold, exponentThreshold, minMillis, report);
+                numOfCompared++;
+                System.out.println(currentFile.getName() + (fileRegressed ? ": REGRESSED" : ": ok"));
+                for (String line : report) {
+                    System.out.println("    " + line);
+                }
+                regressed |= fileRegressed;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not compare results: " + e.getMessage());
+            System.exit(2);
+        }
+        if (numOfCompared == 0) {
+            System.err.println("No file of " + currentDir + " has a baseline in " + baselineDir);
+            System.exit(2);
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    /**
+     * Compare current runtimes with baseline runtimes, adding a line per check to report.
+     * @return Whether current has regressed.
+     */
+    static boolean compare(Runs baseline, Runs current, double threshold, double exponentThreshold,
+                           double minMillis, List<String> report) {
+        boolean regressed = false;
+        for (int i=0; i<current.sizes.length; i++) {
+            int b = baseline.indexOf(current.sizes[i]);
+            if (b < 0) {
+                continue;
+            }
+            double baselineMedian = baseline.percentile(b, 0.5);
+            if (baselineMedian < minMillis) {
+                continue;
+            }
+            double medianChange = current.percentile(i, 0.5) / baselineMedian - 1;
+            double p90Change = current.percentile(i, 0.9) / baseline.percentile(b, 0.9) - 1;
+            boolean sizeRegressed = medianChange > threshold || p90Change > threshold;
+            report.add(String.format("size %d: median %+.1f%%, p90 %+.1f%%%s",
+                    current.sizes[i], 100 * medianChange, 100 * p90Change, sizeRegressed ? " REGRESSED" : ""));
+            regressed |= sizeRegressed;
+        }
+
+        // Both exponents are fit over the same sizes, else a size missing from one run skews its slope.
+        int[] fitSizes = exponentSizes(baseline, current, minMillis);
+        double baselineExponent = baseline.fitExponent(fitSizes);
+        double currentExponent = current.fitExponent(fitSizes);
+        if (Double.isNaN(baselineExponent) || Double.isNaN(currentExponent)) {
+            report.add("growth exponent: skipped, fewer than two sizes to fit");
+        } else {
+            boolean exponentRegressed = currentExponent - baselineExponent > exponentThreshold;
+            report.add(String.format("growth exponent: %.2f -> %.2f%s",
+                    baselineExponent, currentExponent, exponentRegressed ? " REGRESSED" : ""));
+            regressed |= exponentRegressed;
+        }
+        return regressed;
+    }
+
+    /**
+     * @return The sizes of current that baseline also has, whose baseline median is at least minMillis,
+     *         and whose medians can be fit on a log scale in both runs.
+     */
+    static int[] exponentSizes(Runs baseline, Runs current, double minMillis) {
+        int[] fitSizes = new int[current.sizes.length];
+        int n = 0;
+        for (int i=0; i<current.sizes.length; i++) {
+            int b = baseline.indexOf(current.sizes[i]);
+            if (b < 0 || current.sizes[i] <= 0) {
+                continue;
+            }
+            double baselineMedian = baseline.percentile(b, 0.5);
+            if (baselineMedian < minMillis || baselineMedian <= 0 || current.percentile(i, 0.5) <= 0) {
+                continue;
+            }
+            fitSizes[n++] = current.sizes[i];
+        }
+        return Arrays.copyOf(fitSizes, n);
+    }
+
+    /**
+     * Compare current allocations (bytes per operation) with baseline allocations, adding a line per size
+     * to report.
+     * @return Whether current has regressed.
+     */
+    static boolean compareAllocations(Runs baseline, Runs current, double threshold, List<String> report) {
+        boolean regressed = false;
+        for (int i=0; i<current.sizes.length; i++) {
+            int b = baseline.indexOf(current.sizes[i]);
+            if (b < 0) {
+                continue;
+            }
+            double baselineMedian = baseline.percentile(b, 0.5);
+            double currentMedian = current.percentile(i, 0.5);
+            boolean sizeRegressed = currentMedian > baselineMedian * (1 + threshold)
+                    && currentMedian - baselineMedian > MIN_ALLOC_BYTES;
+            report.add(String.format("size %d: %.0f -> %.0f bytes/op%s",
+                    current.sizes[i], baselineMedian, currentMedian, sizeRegressed ? " REGRESSED" : ""));
+            regressed |= sizeRegressed;
+        }
+        return regressed;
+    }
+
+    /**
+     * Read a csv file of runtimes. The first row contains the test sizes, following rows contain
+     * one runtime per size.
+     */
+    static Runs read(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException(file + " is empty");
+            }
+            String[] columns = header.split(",");
+            int[] sizes = new int[columns.length];
+            for (int i=0; i<columns.length; i++) {
+                sizes[i] = Integer.parseInt(columns[i].trim());
+            }
+
+            List<double[]> rows = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] values = line.split(",");
+                if (values.length != sizes.length) {
+                    throw new IllegalArgumentException(file + " has a row with " + values.length
+                            + " values, expected " + sizes.length);
+                }
+                double[] row = new double[values.length];
+                for (int i=0; i<values.length; i++) {
+                    row[i] = Double.parseDouble(values[i].trim());
+                }
+                rows.add(row);
+            }
+
+            double[][] runtimes = new double[sizes.length][rows.size()];
+            for (int j=0; j<rows.size(); j++) {
+                for (int i=0; i<sizes.length; i++) {
+                    runtimes[i][j] = rows.get(j)[i];
+                }
+            }
+            return new Runs(sizes, runtimes);
+        }
+    }
+
+    /**
+     * The runtimes of one benchmark. runtimes[i] holds the runtimes of size sizes[i], sorted.
+     */
+    static class Runs {
+
+        final int[] sizes;
+        final double[][] runtimes;
+
+        Runs(int[] sizes, double[][] runtimes) {
+            this.sizes = sizes;
+            this.runtimes = runtimes;
+            for (double[] sizeRuntimes : runtimes) {
+                if (sizeRuntimes.length == 0) {
+                    throw new IllegalArgumentException("No runtimes given");
+                }
+                Arrays.sort(sizeRuntimes);
+            }
+        }
+
+        int indexOf(int size) {
+            for (int i=0; i<sizes.length; i++) {
+                if (sizes[i] == size) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return The p-th percentile (0 <= p <= 1) of the runtimes of sizes[i], interpolating
+         *         linearly between the closest ranks.
+         */
+        double percentile(int i, double p) {
+            double[] sorted = runtimes[i];
+            double rank = p * (sorted.length - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = (int) Math.ceil(rank);
+            return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+        }
+
+        /**
+         * Least squares fit of log(median runtime) = k * log(size) + c, over the given sizes, which must
+         * be sizes of this run with a positive median.
+         * @return The slope k, or NaN if fewer than two sizes are given.
+         */
+        double fitExponent(int[] fitSizes) {
+            double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+            int n = 0;
+            for (int size : fitSizes) {
+                int i = indexOf(size);
+                if (i < 0) {
+                    throw new IllegalArgumentException("No runtimes for size " + size);
+                }
+                double x = Math.log(size);
+                double y = Math.log(percentile(i, 0.5));
+                sumX += x;
+                sumY += y;
+                sumXX += x * x;
+                sumXY += x * y;
+                n++;
+            }
+            double denominator = n * sumXX - sumX * sumX;
+            if (n < 2 || denominator == 0) {
+                return Double.NaN;
+            }
+            return (n * sumXY - sumX * sumY) / denominator;
+        }
+    }
+}
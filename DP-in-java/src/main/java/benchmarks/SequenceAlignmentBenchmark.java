@@ -0,0 +1,57 @@
+package benchmarks;
+
+import dynamicprograming.SequenceAlignment.SequenceAlignment;
+import dynamicprograming.SequenceAlignment.SequenceAlignmentLinearSpace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmarks both sequence alignment solutions on two random DNA strings of the same length,
+ * with unit mismatch and gap costs.
+ */
+@State(Scope.Benchmark)
+public class SequenceAlignmentBenchmark {
+
+    @Param({"100", "1000", "2000"})
+    int size;
+
+    String X, Y;
+    List<Character> alphabet = Arrays.asList('a', 'c', 'g', 't');
+    float[][] costMatrix = {
+            {0,1,1,1},
+            {1,0,1,1},
+            {1,1,0,1},
+            {1,1,1,0}
+    };
+    double unmatchedCost = 1;
+
+    @Setup
+    public void setup() {
+        X = BenchmarkData.string(size, "acgt", BenchmarkData.SEED);
+        Y = BenchmarkData.string(size, "acgt", BenchmarkData.SEED + 1);
+    }
+
+    @Benchmark
+    public String sequenceAlignment() {
+        SequenceAlignment seqAli = new SequenceAlignment(X, Y);
+        seqAli.setAlphabetMap(alphabet);
+        seqAli.setCostMatrix(costMatrix, unmatchedCost);
+        seqAli.computeAlignment();
+        return seqAli.getAlignment(X.length(), Y.length());
+    }
+
+    @Benchmark
+    public float sequenceAlignmentLinearSpace() {
+        SequenceAlignmentLinearSpace seqAli = new SequenceAlignmentLinearSpace(X, Y);
+        seqAli.setAlphabetMap(alphabet);
+        seqAli.setCostMatrix(costMatrix, unmatchedCost);
+        seqAli.computeAlignment();
+        return seqAli.getOptimalAlignmentCost();
+    }
+}
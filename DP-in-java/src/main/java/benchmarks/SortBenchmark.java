@@ -0,0 +1,100 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import sorting.ArgSort;
+import sorting.MergeSorter;
+import sorting.PivotStrategy;
+import sorting.RadixSort;
+import sorting.Sort;
+
+import java.util.Arrays;
+
+/**
+ * Benchmarks the O(nlogn) sorts. Each invocation copies the unsorted input into a work array
+ * (an O(n) arraycopy) and sorts that.
+ */
+@State(Scope.Benchmark)
+public class SortBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    double[] input;
+    double[] array;
+    MergeSorter mergeSorter;
+    double[] radixBuffer;
+
+    @Setup
+    public void setup() {
+        input = BenchmarkData.prices(size);
+        array = new double[size];
+        mergeSorter = new MergeSorter(size);
+        radixBuffer = new double[size];
+    }
+
+    @Benchmark
+    public double[] mergeSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        Sort.mergeSort(array, 0, size);
+        return array;
+    }
+
+    @Benchmark
+    public double[] quickSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        Sort.quickSort(array, 0, size, "right-index");
+        return array;
+    }
+
+    @Benchmark
+    public double[] quickSortNinther() {
+        System.arraycopy(input, 0, array, 0, size);
+        Sort.quickSort(array, 0, size, PivotStrategy.NINTHER);
+        return array;
+    }
+
+    @Benchmark
+    public double[] dualPivotQuickSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        Sort.dualPivotQuickSort(array, 0, size);
+        return array;
+    }
+
+    @Benchmark
+    public double[] adaptiveMergeSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        mergeSorter.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] radixSort() {
+        System.arraycopy(input, 0, array, 0, size);
+        RadixSort.sort(array, 0, size, radixBuffer);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] boxedArgSort() {
+        Integer[] indices = new Integer[size];
+        for (int i=0; i<size; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (i, j) -> Double.compare(input[i], input[j]));
+        return indices;
+    }
+
+    @Benchmark
+    public int[] argSort() {
+        return ArgSort.argSort(input);
+    }
+
+    @Benchmark
+    public int[] stableArgSort() {
+        return ArgSort.stableArgSort(input);
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UnitTest {
+
+    int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+
+    @Test
+    public void fitExponent() {
+        // Runtimes proportional to n and n^2.
+        double[][] linear = new double[sizes.length][];
+        double[][] quadratic = new double[sizes.length][];
+        for (int i=0; i<sizes.length; i++) {
+            linear[i] = new double[]{sizes[i] * 1e-3, sizes[i] * 1.1e-3, sizes[i] * 0.9e-3};
+            quadratic[i] = new double[]{sizes[i] * 1e-6 * sizes[i]};
+        }
+        Assert.assertEquals(1, new RegressionGate.Runs(sizes, linear).fitExponent(sizes), 1e-9);
+        Assert.assertEquals(2, new RegressionGate.Runs(sizes, quadratic).fitExponent(sizes), 1e-9);
+        Assert.assertTrue(Double.isNaN(new RegressionGate.Runs(sizes, linear).fitExponent(new int[]{sizes[0]})));
+    }
+
+    @Test
+    public void percentile() {
+        RegressionGate.Runs runs = new RegressionGate.Runs(new int[]{10}, new double[][]{{5, 1, 4, 2, 3}});
+        Assert.assertEquals(3, runs.percentile(0, 0.5), 0);
+        Assert.assertEquals(4.6, runs.percentile(0, 0.9), 1e-9);
+    }
+
+    @Test
+    public void compare() {
+        double[][] baseline = new double[sizes.length][];
+        double[][] same = new double[sizes.length][];
+        double[][] slower = new double[sizes.length][];
+        double[][] steeper = new double[sizes.length][];
+        for (int i=0; i<sizes.length; i++) {
+            baseline[i] = new double[]{sizes[i] * 1e-3};
+            same[i] = new double[]{sizes[i] * 1.05e-3};
+            slower[i] = new double[]{sizes[i] * 1.5e-3};
+            // Same runtime at the smallest size, but growing as n^1.5.
+            steeper[i] = new double[]{Math.pow(sizes[i], 1.5) / Math.sqrt(sizes[0]) * 1e-3};
+        }
+        RegressionGate.Runs baselineRuns = new RegressionGate.Runs(sizes, baseline);
+        List<String> report = new ArrayList<>();
+        Assert.assertFalse(RegressionGate.compare(baselineRuns, new RegressionGate.Runs(sizes, same), 0.1, 0.25, 0, report));
+        Assert.assertTrue(RegressionGate.compare(baselineRuns, new RegressionGate.Runs(sizes, slower), 0.1, 0.25, 0, report));
+        // Only the exponent check catches this one when per size changes are allowed to be large.
+        Assert.assertTrue(RegressionGate.compare(baselineRuns, new RegressionGate.Runs(sizes, steeper), 1000, 0.25, 0, report));
+    }
+
+    @Test
+    public void compareMismatchedSizes() {
+        // Runtimes grow as n^1.5 up to 100_000 and as n above, so fitting one run over more sizes than
+        // the other would give it a flatter slope.
+        int[] baselineSizes = {1_000, 10_000, 100_000, 1_000_000};
+        int[] currentSizes = {1_000, 10_000, 100_000};
+        double[][] baseline = new double[baselineSizes.length][];
+        for (int i=0; i<baselineSizes.length; i++) {
+            int n = Math.min(baselineSizes[i], 100_000);
+            baseline[i] = new double[]{Math.pow(n, 1.5) * 1e-6 * baselineSizes[i] / n};
+        }
+        double[][] current = new double[currentSizes.length][];
+        for (int i=0; i<currentSizes.length; i++) {
+            current[i] = new double[]{Math.pow(currentSizes[i], 1.5) * 1e-6};
+        }
+        RegressionGate.Runs baselineRuns = new RegressionGate.Runs(baselineSizes, baseline);
+        RegressionGate.Runs currentRuns = new RegressionGate.Runs(currentSizes, current);
+        Assert.assertArrayEquals(currentSizes, RegressionGate.exponentSizes(baselineRuns, currentRuns, 0));
+        List<String> report = new ArrayList<>();
+        Assert.assertFalse(RegressionGate.compare(baselineRuns, currentRuns, 0.1, 0.25, 0, report));
+        Assert.assertEquals("growth exponent: 1.50 -> 1.50", report.get(report.size() - 1));
+
+        // Only 100_000 is shared with a baseline median of at least 1ms, too few to fit.
+        RegressionGate.Runs large = new RegressionGate.Runs(new int[]{100_000, 200_000},
+                new double[][]{{Math.pow(100_000, 1.5) * 1e-6}, {1e6}});
+        report.clear();
+        Assert.assertFalse(RegressionGate.compare(baselineRuns, large, 0.1, 0.25, 1, report));
+        Assert.assertEquals("growth exponent: skipped, fewer than two sizes to fit", report.get(report.size() - 1));
+    }
+
+    @Test
+    public void compareAllocations() {
+        int[] sizes = {10, 100};
+        RegressionGate.Runs none = new RegressionGate.Runs(sizes, new double[][]{{0}, {0}});
+        RegressionGate.Runs noise = new RegressionGate.Runs(sizes, new double[][]{{16}, {24}});
+        RegressionGate.Runs linear = new RegressionGate.Runs(sizes, new double[][]{{80}, {800}});
+        RegressionGate.Runs moreLinear = new RegressionGate.Runs(sizes, new double[][]{{84}, {840}});
+        RegressionGate.Runs doubled = new RegressionGate.Runs(sizes, new double[][]{{160}, {1600}});
+        List<String> report = new ArrayList<>();
+        // Changes of a few bytes per operation are ignored, even from nothing.
+        Assert.assertFalse(RegressionGate.compareAllocations(none, noise, 0.1, report));
+        Assert.assertFalse(RegressionGate.compareAllocations(linear, moreLinear, 0.1, report));
+        Assert.assertTrue(RegressionGate.compareAllocations(none, linear, 0.1, report));
+        Assert.assertTrue(RegressionGate.compareAllocations(linear, doubled, 0.1, report));
+        Assert.assertFalse(RegressionGate.compareAllocations(doubled, linear, 0.1, report));
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import dynamicprograming.LongestCommonSubsequence.WavefrontLCS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures how WavefrontLCS scales with the number of threads, on two random DNA strings of the same length.
+ */
+@State(Scope.Benchmark)
+public class WavefrontLCSBenchmark {
+
+    @Param({"10000", "50000"})
+    int size;
+
+    @Param({"1", "4", "16", "32"})
+    int threads;
+
+    String X, Y;
+    ExecutorService executor;
+    WavefrontLCS wavefrontLCS;
+
+    @Setup
+    public void setup() {
+        X = BenchmarkData.string(size, "acgt", BenchmarkData.SEED);
+        Y = BenchmarkData.string(size, "acgt", BenchmarkData.SEED + 1);
+        executor = Executors.newFixedThreadPool(threads);
+        wavefrontLCS = new WavefrontLCS(executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int wavefrontLCS() throws InterruptedException {
+        return wavefrontLCS.lcsLength(X, Y);
+    }
+}
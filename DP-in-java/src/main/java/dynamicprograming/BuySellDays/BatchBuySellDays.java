@@ -0,0 +1,151 @@
+package dynamicprograming.BuySellDays;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Solves Buy-Sell-Days for many price series (e.g. one per ticker) at once.
+ *
+ *  Series are given either as a ragged double[][], or as one flat columnar double[] where series s is
+ *  prices[offsets[s]:offsets[s+1]). The buy and sell days of series s (relative to the start of the
+ *  series) are written to results[2s] and results[2s+1], so nothing is allocated per series.
+ *  Empty series have result {-1, -1}.
+ *
+ *  The series are split over a ForkJoinPool by total number of days, rather than number of series,
+ *  so that a few long series do not end up in the same task. Idle workers steal the remaining halves
+ *  of busy workers' ranges. Each task solves its series sequentially with a StreamingBuySellDays,
+ *  which gives the same days as BuySellDays.DP().
+ */
+public class BatchBuySellDays {
+
+    // Ranges of series with fewer total days than this are solved sequentially.
+    public static final int DEFAULT_MIN_DAYS_PER_TASK = 1 << 15;
+
+    private final ForkJoinPool pool;
+    private final int minDaysPerTask;
+
+    public BatchBuySellDays() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MIN_DAYS_PER_TASK);
+    }
+
+    public BatchBuySellDays(ForkJoinPool pool, int minDaysPerTask) {
+        if (minDaysPerTask < 1) {
+            throw new IllegalArgumentException("Minimum days per task must be positive: " + minDaysPerTask);
+        }
+        this.pool = pool;
+        this.minDaysPerTask = minDaysPerTask;
+    }
+
+    /**
+     * Solve each series of a ragged array.
+     * @param series        - series[s] is the prices of series s.
+     * @param results       - Array of size 2*series.length to write the buy and sell days into.
+     */
+    public void DP(double[][] series, int[] results) {
+        checkResults(series.length, results);
+        long[] cumulativeDays = new long[series.length + 1];
+        for (int s=0; s<series.length; s++) {
+            cumulativeDays[s + 1] = cumulativeDays[s] + series[s].length;
+        }
+        pool.invoke(new BatchTask(series, null, null, cumulativeDays, results, 0, series.length, minDaysPerTask));
+    }
+
+    /**
+     * Solve each series of a flat columnar array.
+     * @param prices        - Prices of all series, one after the other.
+     * @param offsets       - Series s is prices[offsets[s]:offsets[s+1]). Of size numOfSeries+1.
+     * @param results       - Array of size 2*numOfSeries to write the buy and sell days into.
+     */
+    public void DP(double[] prices, int[] offsets, int[] results) {
+        int numOfSeries = offsets.length - 1;
+        checkResults(numOfSeries, results);
+        long[] cumulativeDays = new long[offsets.length];
+        for (int s=0; s<=numOfSeries; s++) {
+            cumulativeDays[s] = offsets[s];
+        }
+        pool.invoke(new BatchTask(null, prices, offsets, cumulativeDays, results, 0, numOfSeries, minDaysPerTask));
+    }
+
+    private static void checkResults(int numOfSeries, int[] results) {
+        if (numOfSeries < 0 || results.length < 2 * numOfSeries) {
+            throw new IllegalArgumentException("Results must have room for " + numOfSeries + " series.");
+        }
+    }
+
+    /**
+     * Solves series [startSeries, endSeries).
+     */
+    private static class BatchTask extends RecursiveAction {
+
+        // Exactly one of series and prices is set.
+        private final double[][] series;
+        private final double[] prices;
+        private final int[] offsets;
+        // cumulativeDays[s] is the total number of days in series [0, s).
+        private final long[] cumulativeDays;
+        private final int[] results;
+        private final int startSeries, endSeries, minDaysPerTask;
+
+        BatchTask(double[][] series, double[] prices, int[] offsets, long[] cumulativeDays,
+                  int[] results, int startSeries, int endSeries, int minDaysPerTask) {
+            this.series = series;
+            this.prices = prices;
+            this.offsets = offsets;
+            this.cumulativeDays = cumulativeDays;
+            this.results = results;
+            this.startSeries = startSeries;
+            this.endSeries = endSeries;
+            this.minDaysPerTask = minDaysPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            long days = cumulativeDays[endSeries] - cumulativeDays[startSeries];
+            // Base case, few enough days (or a single series) to solve sequentially.
+            if (endSeries - startSeries <= 1 || days <= minDaysPerTask) {
+                solveSequentially();
+                return;
+            }
+            // Inductive case, split at the series containing the middle day.
+            int midSeries = findSeries(cumulativeDays[startSeries] + days / 2);
+            invokeAll(
+                    new BatchTask(series, prices, offsets, cumulativeDays, results, startSeries, midSeries, minDaysPerTask),
+                    new BatchTask(series, prices, offsets, cumulativeDays, results, midSeries, endSeries, minDaysPerTask));
+        }
+
+        /**
+         * @return The first series s in (startSeries, endSeries) with cumulativeDays[s] >= day,
+         *         or endSeries-1 if there is none.
+         */
+        private int findSeries(long day) {
+            int low = startSeries + 1, high = endSeries - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulativeDays[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void solveSequentially() {
+            StreamingBuySellDays streaming = new StreamingBuySellDays();
+            for (int s=startSeries; s<endSeries; s++) {
+                if (series != null) {
+                    streaming.update(series[s]);
+                } else {
+                    streaming.update(prices, offsets[s], offsets[s + 1]);
+                }
+                if (streaming.getNumOfDays() == 0) {
+                    results[2 * s] = -1;
+                    results[2 * s + 1] = -1;
+                } else {
+                    streaming.getResult(results, 2 * s);
+                }
+                streaming.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package dynamicprograming.BuySellDays;
+
+/**
+ *  The k-transaction Buy-Sell-Days problem is:
+ *      Given a stock's price over an n day period, on what days should an individual buy and sell
+ *      stock to maximize revenue, if they may buy and sell up to k times? The individual holds at most
+ *      one share at a time, so each buy day comes after the previous sell day.
+ *
+ *  A DP solution tracks two values for each j in 1:k after each day i,
+ *      hold[j] - the max revenue so far while holding a share bought in the j-th transaction,
+ *      free[j] - the max revenue so far having sold at most j times and holding nothing.
+ *  On day i, with price p,
+ *      free[j] = max {free[j], hold[j] + p}        (sell on day i)
+ *      hold[j] = max {hold[j], free[j-1] - p}      (buy on day i)
+ *  where free[0] = 0. Computing j from k down to 1 ensures hold[j] uses free[j-1] from the previous
+ *  day, so a share is never bought and sold on the same day. This is O(k) time per day and O(k) values,
+ *  and only looks one day back, so prices can be streamed one day at a time.
+ *
+ *  To backtrack, each state keeps the list of transactions that achieved its value. The lists are
+ *  immutable and share their tails, so updating a state only allocates the single new transaction. But
+ *  the 2k lists may each reach k transactions, so up to O(k^2) transactions are kept alive, and up to
+ *  O(n*k) are allocated over a run (one per improving sell). Constructed with trackTransactions false,
+ *  only the revenue is computed, in O(k) memory and without allocating.
+ *
+ *  If k >= n/2, the limit on transactions can never be reached, and the optimal solution is to buy at
+ *  the start and sell at the end of every run of increasing prices. This takes O(n) time.
+ */
+public class KTransactionsBuySellDays {
+
+    private final int maxTransactions;
+    private final boolean trackTransactions;
+
+    private final double[] hold;
+    private final int[] holdBuyDay;
+    private final Transaction[] holdHistory;
+    private final double[] free;
+    private final Transaction[] freeHistory;
+
+    private int numOfDays = 0;
+
+    public KTransactionsBuySellDays(int maxTransactions) {
+        this(maxTransactions, true);
+    }
+
+    /**
+     * @param trackTransactions - If false, only the revenue is computed, and getTransactions can not be
+     *                            called.
+     */
+    public KTransactionsBuySellDays(int maxTransactions, boolean trackTransactions) {
+        if (maxTransactions < 1) {
+            throw new IllegalArgumentException("Must allow at least one transaction: " + maxTransactions);
+        }
+        this.maxTransactions = maxTransactions;
+        this.trackTransactions = trackTransactions;
+        hold = new double[maxTransactions + 1];
+        holdBuyDay = new int[maxTransactions + 1];
+        holdHistory = new Transaction[maxTransactions + 1];
+        free = new double[maxTransactions + 1];
+        freeHistory = new Transaction[maxTransactions + 1];
+        for (int j=1; j<=maxTransactions; j++) {
+            hold[j] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Process the price of the next day.
+     */
+    public void update(double price) {
+        int day = numOfDays;
+        for (int j=maxTransactions; j>=1; j--) {
+            // Sell the share bought in the j-th transaction.
+            if (hold[j] + price > free[j]) {
+                free[j] = hold[j] + price;
+                if (trackTransactions) {
+                    freeHistory[j] = new Transaction(holdBuyDay[j], day, holdHistory[j]);
+                }
+            }
+            // Buy a share for the j-th transaction.
+            if (free[j-1] - price > hold[j]) {
+                hold[j] = free[j-1] - price;
+                holdBuyDay[j] = day;
+                holdHistory[j] = freeHistory[j-1];
+            }
+        }
+        numOfDays++;
+    }
+
+    public void update(double[] prices) {
+        for (double price : prices) {
+            update(price);
+        }
+    }
+
+    public int getNumOfDays() {return this.numOfDays;}
+
+    /**
+     * @return The max revenue over the prices seen so far.
+     */
+    public double getRevenue() {
+        return free[maxTransactions];
+    }
+
+    /**
+     * @return An int mx2 array, with one row {buy day, sell day} per transaction, ordered by day.
+     */
+    public int[][] getTransactions() {
+        if (!trackTransactions) {
+            throw new IllegalStateException("Transactions are not tracked.");
+        }
+        return Transaction.toArray(freeHistory[maxTransactions]);
+    }
+
+    /**
+     * Solve the k-transaction problem over an array of prices.
+     * @return An int mx2 array, with one row {buy day, sell day} per transaction, ordered by day.
+     */
+    public static int[][] solve(double[] prices, int maxTransactions) {
+        if (maxTransactions < 1) {
+            throw new IllegalArgumentException("Must allow at least one transaction: " + maxTransactions);
+        }
+        if (maxTransactions >= prices.length / 2) {
+            return unlimitedTransactions(prices);
+        }
+        KTransactionsBuySellDays kTransactions = new KTransactionsBuySellDays(maxTransactions);
+        kTransactions.update(prices);
+        return kTransactions.getTransactions();
+    }
+
+    /**
+     * Buy at the start and sell at the end of every run of non-decreasing prices.
+     * There are at most n/2 such runs.
+     */
+    private static int[][] unlimitedTransactions(double[] prices) {
+        Transaction history = null;
+        int i = 0;
+        while (i < prices.length - 1) {
+            // Skip to the next day on which the price goes up.
+            if (prices[i+1] <= prices[i]) {
+                i++;
+                continue;
+            }
+            int buyDay = i;
+            while (i < prices.length - 1 && prices[i+1] >= prices[i]) {
+                i++;
+            }
+            history = new Transaction(buyDay, i, history);
+        }
+        return Transaction.toArray(history);
+    }
+
+    /**
+     * A buy and sell, linked to the transaction before it.
+     */
+    private static class Transaction {
+
+        final int buyDay, sellDay;
+        final Transaction previous;
+        final int count;
+
+        Transaction(int buyDay, int sellDay, Transaction previous) {
+            this.buyDay = buyDay;
+            this.sellDay = sellDay;
+            this.previous = previous;
+            this.count = previous == null ? 1 : previous.count + 1;
+        }
+
+        static int[][] toArray(Transaction last) {
+            int[][] result = new int[last == null ? 0 : last.count][];
+            for (Transaction t = last; t != null; t = t.previous) {
+                result[t.count - 1] = new int[]{t.buyDay, t.sellDay};
+            }
+            return result;
+        }
+    }
+}
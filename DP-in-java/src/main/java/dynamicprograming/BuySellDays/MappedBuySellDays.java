@@ -0,0 +1,103 @@
+package dynamicprograming.BuySellDays;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  Solves Buy-Sell-Days over a binary file of prices, without loading the prices onto the heap.
+ *
+ *  The file holds one little-endian 8 byte double per day. A single MappedByteBuffer can map at most
+ *  2GB, so the file is mapped one window at a time, and each window is fed through a
+ *  StreamingBuySellDays. Since the DP only needs the previous day, no state is kept between windows
+ *  besides the streaming engine itself. Days are numbered with longs, so files may hold more than
+ *  Integer.MAX_VALUE days.
+ */
+public class MappedBuySellDays {
+
+    // Number of bytes mapped at a time.
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    private final Path file;
+    private final int windowSize;
+
+    public MappedBuySellDays(Path file) {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize    - Number of bytes to map at a time. Must be a positive multiple of 8.
+     */
+    public MappedBuySellDays(Path file, int windowSize) {
+        if (windowSize <= 0 || windowSize % Double.BYTES != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of 8: " + windowSize);
+        }
+        this.file = file;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @return A long 1x2 array. First and second values indicating days to buy and sell.
+     */
+    public long[] DP() throws IOException {
+        StreamingBuySellDays streaming = scan();
+        return new long[]{streaming.getDayToBuyOn(), streaming.getDayToSellOn()};
+    }
+
+    /**
+     * @return The maximum revenue value.
+     */
+    public double DPValue() throws IOException {
+        return scan().getRevenue();
+    }
+
+    private StreamingBuySellDays scan() throws IOException {
+        StreamingBuySellDays streaming = new StreamingBuySellDays();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size % Double.BYTES != 0) {
+                throw new IllegalArgumentException(file + " does not contain a whole, non-zero number of prices.");
+            }
+            for (long position = 0; position < size; position += windowSize) {
+                long length = Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                DoubleBuffer prices = window.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                int numOfPrices = prices.remaining();
+                for (int i=0; i<numOfPrices; i++) {
+                    streaming.update(prices.get(i));
+                }
+            }
+        }
+        return streaming;
+    }
+
+    /**
+     * Write prices to a file in the format read by this class.
+     */
+    public static void writePrices(Path file, double[] prices) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (double price : prices) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putDouble(price);
+            }
+            writeFully(channel, buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
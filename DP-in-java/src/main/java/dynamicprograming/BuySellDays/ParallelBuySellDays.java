@@ -0,0 +1,83 @@
+package dynamicprograming.BuySellDays;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *  A parallel solution to Buy-Sell-Days, based on the same observation as BuySellDays.DNC().
+ *
+ *  DNC() rescans both halves for their min and max at every level of the recursion, resulting in
+ *  O(nlogn) work. Instead each window returns a WindowSummary (min day, max day, best window), which
+ *  is all that is needed to combine two adjacent windows in O(1). Windows smaller than the threshold
+ *  are summarized with a single sequential pass, larger windows are split in half and both halves
+ *  are solved in parallel on a ForkJoinPool. This results in O(n) work and O(logn) span.
+ *
+ *  Returns the same days as BuySellDays.DP(), including how ties are broken.
+ */
+public class ParallelBuySellDays {
+
+    // Windows with fewer days than this are scanned sequentially.
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ParallelBuySellDays() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ParallelBuySellDays(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return An int 1x2 array. First and second values indicating indices to buy and sell.
+     */
+    public int[] DP(double[] prices) {
+        if (prices.length == 0) {
+            throw new IllegalArgumentException("Prices must contain at least one day.");
+        }
+        int[] summary = pool.invoke(new SummaryTask(prices, 0, prices.length, threshold));
+        return new int[]{summary[WindowSummary.BUY], summary[WindowSummary.SELL]};
+    }
+
+    /**
+     * Computes the WindowSummary of prices[startIndex:endIndex).
+     */
+    private static class SummaryTask extends RecursiveTask<int[]> {
+
+        private final double[] prices;
+        private final int startIndex, endIndex, threshold;
+
+        SummaryTask(double[] prices, int startIndex, int endIndex, int threshold) {
+            this.prices = prices;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected int[] compute() {
+            int[] summary = new int[WindowSummary.SIZE];
+            // Base case, window is small enough to scan.
+            if (endIndex - startIndex <= threshold) {
+                WindowSummary.scan(prices, startIndex, endIndex, summary, 0);
+                return summary;
+            }
+            // Inductive case, solve both halves in parallel then merge.
+            int midpoint = (startIndex + endIndex) >>> 1;
+            SummaryTask leftTask = new SummaryTask(prices, startIndex, midpoint, threshold);
+            SummaryTask rightTask = new SummaryTask(prices, midpoint, endIndex, threshold);
+            leftTask.fork();
+            int[] rightSummary = rightTask.compute();
+            int[] leftSummary = leftTask.join();
+
+            WindowSummary.merge(prices, -1, leftSummary, 0, rightSummary, 0, summary, 0);
+            return summary;
+        }
+    }
+}
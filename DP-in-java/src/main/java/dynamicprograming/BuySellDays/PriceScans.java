@@ -0,0 +1,185 @@
+package dynamicprograming.BuySellDays;
+
+/**
+ *  Scans over price arrays used by the Buy-Sell-Days solutions: argmin, argmax and the max revenue
+ *  (best window) of a range.
+ *
+ *  A plain loop keeps a single running min, so each comparison depends on the one before it, and the
+ *  CPU can only work on one element at a time. The scans below split the range into LANES lanes, each
+ *  with its own running value, so the comparisons of different lanes are independent and can be
+ *  executed in parallel by the CPU. The lanes are combined at the end.
+ *      - argmin/argmax interleave the lanes (lane l holds indices i with (i - startIndex) % LANES == l),
+ *        and combine by taking the smallest index among lanes with the best value.
+ *      - the max revenue scan gives each lane a contiguous block of the range, computing its
+ *        WindowSummary, and merges the blocks' summaries left to right.
+ *  The scalar versions are kept for comparison, and results (including ties) are the same.
+ *
+ *  The lanes are opt-in: BuySellDays keeps its own scalar loops, as ScanRuntimes shows argmin and argmax
+ *  are memory-bound and the lanes give no gain there.
+ */
+public final class PriceScans {
+
+    static final int LANES = 4;
+
+    private PriceScans() {
+
+    }
+
+    /**
+     * Get index of min value in array. Ties are broken by the smallest index.
+     * @param array         - Array to search over
+     * @param startIndex    - Starting index (inclusive)
+     * @param endIndex      - Ending index (exclusive)
+     * @return              - Index of min value in array.
+     */
+    public static int getMinIndex(double[] array, int startIndex, int endIndex) {
+        double min0 = Double.POSITIVE_INFINITY, min1 = min0, min2 = min0, min3 = min0;
+        int index0 = startIndex, index1 = startIndex, index2 = startIndex, index3 = startIndex;
+        int i = startIndex;
+        for (; i <= endIndex - LANES; i += LANES) {
+            if (array[i] < min0)     { min0 = array[i];     index0 = i; }
+            if (array[i + 1] < min1) { min1 = array[i + 1]; index1 = i + 1; }
+            if (array[i + 2] < min2) { min2 = array[i + 2]; index2 = i + 2; }
+            if (array[i + 3] < min3) { min3 = array[i + 3]; index3 = i + 3; }
+        }
+        // Remaining elements belong to lanes 0 to 2.
+        if (i < endIndex && array[i] < min0)         { min0 = array[i];     index0 = i; }
+        if (i + 1 < endIndex && array[i + 1] < min1) { min1 = array[i + 1]; index1 = i + 1; }
+        if (i + 2 < endIndex && array[i + 2] < min2) { min2 = array[i + 2]; index2 = i + 2; }
+
+        int index = index0;
+        double min = min0;
+        if (min1 < min || (min1 == min && index1 < index)) { min = min1; index = index1; }
+        if (min2 < min || (min2 == min && index2 < index)) { min = min2; index = index2; }
+        if (min3 < min || (min3 == min && index3 < index)) { index = index3; }
+        return index;
+    }
+
+    /**
+     * Get index of max value in array. Ties are broken by the smallest index.
+     * @param array         - Array to search over
+     * @param startIndex    - Starting index (inclusive)
+     * @param endIndex      - Ending index (exclusive)
+     * @return              - Index of max value in array.
+     */
+    public static int getMaxIndex(double[] array, int startIndex, int endIndex) {
+        double max0 = Double.NEGATIVE_INFINITY, max1 = max0, max2 = max0, max3 = max0;
+        int index0 = startIndex, index1 = startIndex, index2 = startIndex, index3 = startIndex;
+        int i = startIndex;
+        for (; i <= endIndex - LANES; i += LANES) {
+            if (array[i] > max0)     { max0 = array[i];     index0 = i; }
+            if (array[i + 1] > max1) { max1 = array[i + 1]; index1 = i + 1; }
+            if (array[i + 2] > max2) { max2 = array[i + 2]; index2 = i + 2; }
+            if (array[i + 3] > max3) { max3 = array[i + 3]; index3 = i + 3; }
+        }
+        // Remaining elements belong to lanes 0 to 2.
+        if (i < endIndex && array[i] > max0)         { max0 = array[i];     index0 = i; }
+        if (i + 1 < endIndex && array[i + 1] > max1) { max1 = array[i + 1]; index1 = i + 1; }
+        if (i + 2 < endIndex && array[i + 2] > max2) { max2 = array[i + 2]; index2 = i + 2; }
+
+        int index = index0;
+        double max = max0;
+        if (max1 > max || (max1 == max && index1 < index)) { max = max1; index = index1; }
+        if (max2 > max || (max2 == max && index2 < index)) { max = max2; index = index2; }
+        if (max3 > max || (max3 == max && index3 < index)) { index = index3; }
+        return index;
+    }
+
+    /**
+     * Element at a time version of getMinIndex.
+     */
+    public static int getMinIndexScalar(double[] array, int startIndex, int endIndex) {
+        double minValue = Double.POSITIVE_INFINITY;
+        int index = startIndex;
+        for (int i=startIndex; i<endIndex; i++) {
+            if (array[i] < minValue) {
+                index = i;
+                minValue = array[i];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Element at a time version of getMaxIndex.
+     */
+    public static int getMaxIndexScalar(double[] array, int startIndex, int endIndex) {
+        double maxValue = Double.NEGATIVE_INFINITY;
+        int index = startIndex;
+        for (int i=startIndex; i<endIndex; i++) {
+            if (array[i] > maxValue) {
+                index = i;
+                maxValue = array[i];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Solve Buy-Sell-Days over prices[startIndex:endIndex), with the same days as BuySellDays.DP()
+     * on that range (offset by startIndex).
+     * @return An int 1x2 array. First and second values indicating indices to buy and sell.
+     */
+    public static int[] getBestWindow(double[] prices, int startIndex, int endIndex) {
+        int length = endIndex - startIndex;
+        if (length <= 0) {
+            throw new IllegalArgumentException("Empty range: [" + startIndex + ", " + endIndex + ")");
+        }
+        int[] summaries = new int[LANES * WindowSummary.SIZE];
+        int blockSize = length / LANES;
+        if (blockSize == 0) {
+            WindowSummary.scan(prices, startIndex, endIndex, summaries, 0);
+            return new int[]{summaries[WindowSummary.BUY], summaries[WindowSummary.SELL]};
+        }
+
+        // Lane l scans block [start_l, start_l + blockSize). The last lane also scans the remainder.
+        int start0 = startIndex, start1 = start0 + blockSize, start2 = start1 + blockSize, start3 = start2 + blockSize;
+        int minIndex0 = start0, maxIndex0 = start0, buy0 = start0, sell0 = start0;
+        int minIndex1 = start1, maxIndex1 = start1, buy1 = start1, sell1 = start1;
+        int minIndex2 = start2, maxIndex2 = start2, buy2 = start2, sell2 = start2;
+        int minIndex3 = start3, maxIndex3 = start3, buy3 = start3, sell3 = start3;
+        double min0 = prices[start0], max0 = min0, best0 = 0;
+        double min1 = prices[start1], max1 = min1, best1 = 0;
+        double min2 = prices[start2], max2 = min2, best2 = 0;
+        double min3 = prices[start3], max3 = min3, best3 = 0;
+        for (int k=1; k<blockSize; k++) {
+            int i0 = start0 + k, i1 = start1 + k, i2 = start2 + k, i3 = start3 + k;
+            double p0 = prices[i0], p1 = prices[i1], p2 = prices[i2], p3 = prices[i3];
+            if (p0 <= min0) { min0 = p0; minIndex0 = i0; }
+            if (p1 <= min1) { min1 = p1; minIndex1 = i1; }
+            if (p2 <= min2) { min2 = p2; minIndex2 = i2; }
+            if (p3 <= min3) { min3 = p3; minIndex3 = i3; }
+            if (p0 > max0) { max0 = p0; maxIndex0 = i0; }
+            if (p1 > max1) { max1 = p1; maxIndex1 = i1; }
+            if (p2 > max2) { max2 = p2; maxIndex2 = i2; }
+            if (p3 > max3) { max3 = p3; maxIndex3 = i3; }
+            if (p0 - min0 > best0) { best0 = p0 - min0; buy0 = minIndex0; sell0 = i0; }
+            if (p1 - min1 > best1) { best1 = p1 - min1; buy1 = minIndex1; sell1 = i1; }
+            if (p2 - min2 > best2) { best2 = p2 - min2; buy2 = minIndex2; sell2 = i2; }
+            if (p3 - min3 > best3) { best3 = p3 - min3; buy3 = minIndex3; sell3 = i3; }
+        }
+        setSummary(summaries, 0, minIndex0, maxIndex0, buy0, sell0);
+        setSummary(summaries, 1, minIndex1, maxIndex1, buy1, sell1);
+        setSummary(summaries, 2, minIndex2, maxIndex2, buy2, sell2);
+        setSummary(summaries, 3, minIndex3, maxIndex3, buy3, sell3);
+
+        for (int l=1; l<LANES; l++) {
+            WindowSummary.merge(prices, -1, summaries, 0, summaries, l * WindowSummary.SIZE, summaries, 0);
+        }
+        // Remainder of the range that did not fit in the blocks.
+        int remainderStart = start3 + blockSize;
+        if (remainderStart < endIndex) {
+            WindowSummary.scan(prices, remainderStart, endIndex, summaries, WindowSummary.SIZE);
+            WindowSummary.merge(prices, -1, summaries, 0, summaries, WindowSummary.SIZE, summaries, 0);
+        }
+        return new int[]{summaries[WindowSummary.BUY], summaries[WindowSummary.SELL]};
+    }
+
+    private static void setSummary(int[] summaries, int lane, int minIndex, int maxIndex, int buy, int sell) {
+        int offset = lane * WindowSummary.SIZE;
+        summaries[offset + WindowSummary.MIN] = minIndex;
+        summaries[offset + WindowSummary.MAX] = maxIndex;
+        summaries[offset + WindowSummary.BUY] = buy;
+        summaries[offset + WindowSummary.SELL] = sell;
+    }
+}
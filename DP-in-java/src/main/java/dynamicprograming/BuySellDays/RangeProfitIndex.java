@@ -0,0 +1,155 @@
+package dynamicprograming.BuySellDays;
+
+import java.util.Arrays;
+
+/**
+ *  An index over a price series that answers Buy-Sell-Days for any range of days [l, r].
+ *
+ *  The index is a segment tree whose nodes are WindowSummary values. Leaf n+i summarizes day i,
+ *  and node k summarizes the union of its children 2k and 2k+1. Any range is covered by O(logn)
+ *  nodes, which are merged from left to right to answer a query. Changing the price of a day only
+ *  changes the summaries of its O(logn) ancestors.
+ *      Build:  O(n)
+ *      Query:  O(logn)
+ *      Update: O(logn)
+ *
+ *  The summaries are kept in one flat int array, node k using tree[4k:4k+4).
+ *  Answers are the same days DP() returns on the sub-array prices[l:r], offset by l.
+ *
+ *  The index keeps its own copy of the prices, and is not safe for use by several threads at once.
+ */
+public class RangeProfitIndex {
+
+    private final double[] prices;
+    private final int numOfDays;
+    private final int[] tree;
+
+    // Scratch space for merging the left and right halves of a query.
+    private final int[] leftResult = new int[WindowSummary.SIZE];
+    private final int[] rightResult = new int[WindowSummary.SIZE];
+
+    public RangeProfitIndex(double[] prices) {
+        if (prices.length == 0) {
+            throw new IllegalArgumentException("Prices must contain at least one day.");
+        }
+        this.prices = Arrays.copyOf(prices, prices.length);
+        this.numOfDays = prices.length;
+        this.tree = new int[2 * numOfDays * WindowSummary.SIZE];
+
+        for (int i=0; i<numOfDays; i++) {
+            WindowSummary.leaf(tree, (numOfDays + i) * WindowSummary.SIZE, i);
+        }
+        for (int k=numOfDays-1; k>=1; k--) {
+            mergeChildren(k);
+        }
+    }
+
+    public int getNumOfDays() {return this.numOfDays;}
+
+    public double getPrice(int day) {return this.prices[day];}
+
+    /**
+     * Change the price of a single day.
+     */
+    public void update(int day, double price) {
+        checkDay(day);
+        prices[day] = price;
+        for (int k=(numOfDays + day) >> 1; k>=1; k >>= 1) {
+            mergeChildren(k);
+        }
+    }
+
+    /**
+     * Solve Buy-Sell-Days over the days [leftIndex, rightIndex], inclusive.
+     * @return An int 1x2 array. First and second values indicating indices to buy and sell.
+     */
+    public int[] query(int leftIndex, int rightIndex) {
+        int[] result = new int[2];
+        query(leftIndex, rightIndex, result, 0);
+        return result;
+    }
+
+    /**
+     * Solve Buy-Sell-Days over the days [leftIndex, rightIndex], inclusive, without allocating.
+     * @param result        - Array to write into. result[offset] is the buy day, result[offset+1] the sell day.
+     */
+    public void query(int leftIndex, int rightIndex, int[] result, int offset) {
+        checkDay(leftIndex);
+        checkDay(rightIndex);
+        if (rightIndex < leftIndex) {
+            throw new IllegalArgumentException("Empty range: [" + leftIndex + ", " + rightIndex + "]");
+        }
+        boolean hasLeft = false, hasRight = false;
+        int l = leftIndex + numOfDays;
+        int r = rightIndex + numOfDays + 1;
+        while (l < r) {
+            if ((l & 1) == 1) {
+                // Node l is the next window of the range, going left to right.
+                if (hasLeft) {
+                    WindowSummary.merge(prices, -1, leftResult, 0, tree, l * WindowSummary.SIZE, leftResult, 0);
+                } else {
+                    System.arraycopy(tree, l * WindowSummary.SIZE, leftResult, 0, WindowSummary.SIZE);
+                    hasLeft = true;
+                }
+                l++;
+            }
+            if ((r & 1) == 1) {
+                // Node r-1 is the next window of the range, going right to left.
+                r--;
+                if (hasRight) {
+                    WindowSummary.merge(prices, -1, tree, r * WindowSummary.SIZE, rightResult, 0, rightResult, 0);
+                } else {
+                    System.arraycopy(tree, r * WindowSummary.SIZE, rightResult, 0, WindowSummary.SIZE);
+                    hasRight = true;
+                }
+            }
+            l >>= 1;
+            r >>= 1;
+        }
+        if (hasLeft && hasRight) {
+            WindowSummary.merge(prices, -1, leftResult, 0, rightResult, 0, leftResult, 0);
+        } else if (hasRight) {
+            System.arraycopy(rightResult, 0, leftResult, 0, WindowSummary.SIZE);
+        }
+        result[offset] = leftResult[WindowSummary.BUY];
+        result[offset + 1] = leftResult[WindowSummary.SELL];
+    }
+
+    /**
+     * Answer many queries at once. Queries are answered in order of their left index, so that
+     * consecutive queries walk through nearby nodes of the tree.
+     * @param leftIndices   - leftIndices[q] is the first day of query q.
+     * @param rightIndices  - rightIndices[q] is the last day of query q (inclusive).
+     * @param results       - Array of size 2*numOfQueries. Query q's buy and sell days are written to
+     *                        results[2q] and results[2q+1].
+     */
+    public void query(int[] leftIndices, int[] rightIndices, int[] results) {
+        int numOfQueries = leftIndices.length;
+        if (rightIndices.length != numOfQueries || results.length < 2 * numOfQueries) {
+            throw new IllegalArgumentException("Query and result arrays have mismatched lengths.");
+        }
+        // Sort queries by left index. Pack (left index, query number) into a long to avoid boxing.
+        long[] order = new long[numOfQueries];
+        for (int q=0; q<numOfQueries; q++) {
+            order[q] = ((long) leftIndices[q] << 32) | q;
+        }
+        Arrays.sort(order);
+        for (long packed : order) {
+            int q = (int) packed;
+            query(leftIndices[q], rightIndices[q], results, 2 * q);
+        }
+    }
+
+    private void mergeChildren(int k) {
+        WindowSummary.merge(prices, -1,
+                tree, 2 * k * WindowSummary.SIZE,
+                tree, (2 * k + 1) * WindowSummary.SIZE,
+                tree, k * WindowSummary.SIZE);
+    }
+
+    private void checkDay(int day) {
+        if (day < 0 || day >= numOfDays) {
+            throw new IndexOutOfBoundsException("Day " + day + " is not in [0, " + numOfDays + ")");
+        }
+    }
+}
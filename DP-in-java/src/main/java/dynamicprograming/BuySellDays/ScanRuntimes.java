@@ -0,0 +1,122 @@
+package dynamicprograming.BuySellDays;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Compare the runtimes of the scalar and multi-lane scans in PriceScans. Output runtimes to csv files,
+ * in the same format as Runtimes.
+ *
+ * The largest test size needs about 1GB of heap, e.g. run with -Xmx2g.
+ */
+public class ScanRuntimes {
+
+    static int[] TEST_SIZES = new int[] {1_000_000, 10_000_000, 100_000_000};
+    static int NUM_OF_TESTS = 10;
+    // Untimed runs before each test size, so the JIT has compiled the scans.
+    static int NUM_OF_WARMUPS = 5;
+
+    static String[] METHOD_NAMES = new String[] {
+            "argmin_scalar", "argmin_lanes", "argmax_scalar", "argmax_lanes", "dp", "best_window_lanes"
+    };
+
+    // Used for storing runtime of tests. testResults[k][i][j] is test j of size i for method k.
+    static double[][][] testResults;
+
+    // Results are accumulated here so the JIT cannot discard the scans.
+    static long sink = 0;
+
+    /*
+        === Main Method ===
+     */
+    public static void main(String[] args) {
+        testResults = new double[METHOD_NAMES.length][TEST_SIZES.length][NUM_OF_TESTS];
+
+        for (int i=0; i<TEST_SIZES.length; i++) {
+            double[] prices = Runtimes.getPrices(TEST_SIZES[i]);
+            BuySellDays bsd = new BuySellDays(prices);
+            System.out.println("Running test size: " + TEST_SIZES[i] + " ... ");
+            for (int k=0; k<METHOD_NAMES.length; k++) {
+                for (int j=0; j<NUM_OF_WARMUPS; j++) {
+                    runMethod(k, bsd);
+                }
+                for (int j=0; j<NUM_OF_TESTS; j++) {
+                    long startTime = System.nanoTime();
+                    runMethod(k, bsd);
+                    long endTime = System.nanoTime();
+                    testResults[k][i][j] = (double)(endTime-startTime)/1_000_000;
+                }
+            }
+            // Print outside of the timed loops.
+            for (int k=0; k<METHOD_NAMES.length; k++) {
+                System.out.println(METHOD_NAMES[k] + ": median duration " + median(testResults[k][i]));
+            }
+        }
+        System.out.println("(ignore) " + sink);
+
+        for (int k=0; k<METHOD_NAMES.length; k++) {
+            writeResults("test_results/BuySellScans/" + METHOD_NAMES[k] + ".csv", testResults[k]);
+        }
+    }
+
+    private static void runMethod(int k, BuySellDays bsd) {
+        double[] prices = bsd.getPrices();
+        switch (k) {
+            case 0:
+                sink += PriceScans.getMinIndexScalar(prices, 0, prices.length);
+                break;
+            case 1:
+                sink += PriceScans.getMinIndex(prices, 0, prices.length);
+                break;
+            case 2:
+                sink += PriceScans.getMaxIndexScalar(prices, 0, prices.length);
+                break;
+            case 3:
+                sink += PriceScans.getMaxIndex(prices, 0, prices.length);
+                break;
+            case 4:
+                sink += bsd.DP()[1];
+                break;
+            case 5:
+                sink += PriceScans.getBestWindow(prices, 0, prices.length)[1];
+                break;
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * First row of file contains test sizes (header).
+     * Following rows (NUM_OF_TESTS) contain runtimes.
+     */
+    private static void writeResults(String fileName, double[][] runtimes) {
+        new File(fileName).getParentFile().mkdirs();
+        try (PrintWriter pw = new PrintWriter(new File(fileName))) {
+            StringBuilder sb = new StringBuilder();
+            for (int i=0; i<TEST_SIZES.length; i++) {
+                sb.append(TEST_SIZES[i]);
+                if (i < TEST_SIZES.length-1) {
+                    sb.append(',');
+                }
+            }
+            for (int j=0; j<NUM_OF_TESTS; j++) {
+                sb.append("\n");
+                for (int i=0; i<TEST_SIZES.length; i++) {
+                    sb.append(runtimes[i][j]);
+                    if (i < TEST_SIZES.length-1) {
+                        sb.append(',');
+                    }
+                }
+            }
+            pw.write(sb.toString());
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+}
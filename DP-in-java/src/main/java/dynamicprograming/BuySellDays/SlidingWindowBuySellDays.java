@@ -0,0 +1,174 @@
+package dynamicprograming.BuySellDays;
+
+/**
+ *  Buy-Sell-Days over a sliding window containing the most recent W days, updated one day at a time.
+ *
+ *  The window is kept as a queue built from two stacks of WindowSummary values:
+ *      - the front holds the oldest days. For each day d in the front we store the summary of
+ *        [d, end of front), so dropping the oldest day is just moving to the next summary.
+ *      - the back holds the newest days, of which only the combined summary is stored. Adding a
+ *        day merges its summary into the back.
+ *  The answer for the window is the front summary merged with the back summary. Once the front runs
+ *  out of days, the back's days are moved to the front by computing its suffix summaries from the
+ *  newest day to the oldest. Each day is moved once, so updates are amortized O(1) and memory is O(W).
+ *
+ *  Prices and front summaries are stored in ring buffers indexed by day, so days are numbered
+ *  globally (the first price is day 0). Answers are the same days DP() returns on the prices in the
+ *  window, offset by the first day of the window.
+ *
+ *  Days are counted with a long, as a rolling window may see more ticks than an int can count. The
+ *  summaries only hold the low 32 bits of each day: that is enough to index the ring buffers, and as the
+ *  days of a window are less than 2^31 apart, the full day is the window start plus the difference of
+ *  the low bits.
+ */
+public class SlidingWindowBuySellDays {
+
+    private final int windowSize;
+    // Ring buffer capacity minus one. Day d is stored at index d & mask.
+    private final int mask;
+
+    private final double[] prices;
+    private final int[] frontSummaries;
+    private final int[] backSummary = new int[WindowSummary.SIZE];
+    // Scratch space for a single day's summary.
+    private final int[] daySummary = new int[WindowSummary.SIZE];
+    // Scratch space for the summary of the whole window.
+    private final int[] windowSummary = new int[WindowSummary.SIZE];
+
+    // The window is the days [windowStart, numOfDays). The front is [windowStart, backStart).
+    private long windowStart = 0;
+    private long backStart = 0;
+    private long numOfDays = 0;
+
+    public SlidingWindowBuySellDays(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        // The window briefly holds windowSize+1 days while adding a day, before the oldest is dropped.
+        int capacity = Integer.highestOneBit(windowSize) << 1;
+        this.mask = capacity - 1;
+        this.prices = new double[capacity];
+        this.frontSummaries = new int[capacity * WindowSummary.SIZE];
+    }
+
+    /**
+     * Process the price of the next day, dropping the oldest day if the window is full.
+     */
+    public void update(double price) {
+        long day = numOfDays;
+        prices[(int) day & mask] = price;
+        WindowSummary.leaf(daySummary, 0, (int) day);
+        if (backStart == day) {
+            System.arraycopy(daySummary, 0, backSummary, 0, WindowSummary.SIZE);
+        } else {
+            WindowSummary.merge(prices, mask, backSummary, 0, daySummary, 0, backSummary, 0);
+        }
+        numOfDays++;
+
+        if (numOfDays - windowStart > windowSize) {
+            if (windowStart == backStart) {
+                moveBackToFront();
+            }
+            windowStart++;
+        }
+    }
+
+    public void update(double[] prices) {
+        for (double price : prices) {
+            update(price);
+        }
+    }
+
+    public long getNumOfDays() {return this.numOfDays;}
+
+    public int getWindowSize() {return this.windowSize;}
+
+    /**
+     * @return The first day of the current window.
+     */
+    public long getWindowStart() {return this.windowStart;}
+
+    /**
+     * Write the best days of the current window into result, without allocating. Days past
+     * Integer.MAX_VALUE do not fit in result; use getDayToBuyOn() and getDayToSellOn() for streams that long.
+     * @param result        - Array to write into. result[offset] is the buy day, result[offset+1] the sell day.
+     * @throws ArithmeticException if a day does not fit in an int.
+     */
+    public void getResult(int[] result, int offset) {
+        computeWindowSummary();
+        result[offset] = Math.toIntExact(toDay(windowSummary[WindowSummary.BUY]));
+        result[offset + 1] = Math.toIntExact(toDay(windowSummary[WindowSummary.SELL]));
+    }
+
+    public long getDayToBuyOn() {
+        computeWindowSummary();
+        return toDay(windowSummary[WindowSummary.BUY]);
+    }
+
+    public long getDayToSellOn() {
+        computeWindowSummary();
+        return toDay(windowSummary[WindowSummary.SELL]);
+    }
+
+    /**
+     * @return An int 1x2 array. First and second values indicating days to buy and sell.
+     */
+    public int[] getResult() {
+        int[] result = new int[2];
+        getResult(result, 0);
+        return result;
+    }
+
+    /**
+     * @return The revenue of the best trade in the current window.
+     */
+    public double getRevenue() {
+        computeWindowSummary();
+        return prices[windowSummary[WindowSummary.SELL] & mask] - prices[windowSummary[WindowSummary.BUY] & mask];
+    }
+
+    /**
+     * Set windowSummary to the summary of the current window.
+     */
+    private void computeWindowSummary() {
+        if (numOfDays == 0) {
+            throw new IllegalStateException("No prices have been processed.");
+        }
+        if (windowStart == backStart) {
+            // Front is empty.
+            System.arraycopy(backSummary, 0, windowSummary, 0, WindowSummary.SIZE);
+        } else if (backStart == numOfDays) {
+            // Back is empty.
+            System.arraycopy(frontSummaries, ((int) windowStart & mask) * WindowSummary.SIZE, windowSummary, 0, WindowSummary.SIZE);
+        } else {
+            WindowSummary.merge(prices, mask,
+                    frontSummaries, ((int) windowStart & mask) * WindowSummary.SIZE,
+                    backSummary, 0,
+                    windowSummary, 0);
+        }
+    }
+
+    /**
+     * @return The day of the window whose low 32 bits are lowBits.
+     */
+    private long toDay(int lowBits) {
+        return windowStart + (lowBits - (int) windowStart);
+    }
+
+    /**
+     * Move all days of the back to the front, storing suffix summaries from newest to oldest day.
+     */
+    private void moveBackToFront() {
+        long newest = numOfDays - 1;
+        WindowSummary.leaf(frontSummaries, ((int) newest & mask) * WindowSummary.SIZE, (int) newest);
+        for (long day=newest-1; day>=backStart; day--) {
+            WindowSummary.leaf(daySummary, 0, (int) day);
+            WindowSummary.merge(prices, mask,
+                    daySummary, 0,
+                    frontSummaries, ((int) (day + 1) & mask) * WindowSummary.SIZE,
+                    frontSummaries, ((int) day & mask) * WindowSummary.SIZE);
+        }
+        backStart = numOfDays;
+    }
+}
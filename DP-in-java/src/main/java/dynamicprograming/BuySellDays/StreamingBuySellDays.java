@@ -0,0 +1,140 @@
+package dynamicprograming.BuySellDays;
+
+/**
+ *  An online version of the Buy-Sell-Days DP solution, where prices arrive one day (tick) at a time.
+ *
+ *  Observe the recurrence used by BuySellDays.DP(),
+ *      dpArray[i] = max {0, dpArray[i-1] - prices[i-1] + prices[i]}
+ *  only looks one day back. Thus it is enough to store:
+ *      - the previous price and dpArray value,
+ *      - the last day on which dpArray was 0 (the best day to buy given a sell on the current day),
+ *      - the best dpArray value seen so far along with its buy and sell days.
+ *  Each update is then O(1) time with constant memory, and no objects are allocated per tick.
+ *
+ *  Ties are broken the same way as DP(): the earliest sell day achieving the max revenue, and the
+ *  last day with dpArray value 0 before it as the buy day. Hence after i ticks the answer is the same
+ *  as calling DP() on the first i prices.
+ *
+ *  Days are counted with a long so the engine can run over streams longer than an int can index.
+ */
+public class StreamingBuySellDays {
+
+    // Number of prices seen so far. The next price is on day numOfDays.
+    private long numOfDays = 0;
+
+    // Price and dp value of the previous day.
+    private double previousPrice;
+    private double previousRevenue;
+
+    // Last day on which the dp value was 0.
+    private long lastZeroDay;
+
+    // Best revenue so far and the days to buy and sell to achieve it.
+    private double bestRevenue;
+    private long bestDayToBuyOn, bestDayToSellOn;
+
+    public StreamingBuySellDays() {
+
+    }
+
+    /**
+     * Process the price of the next day.
+     */
+    public void update(double price) {
+        if (numOfDays == 0) {
+            // Base case, selling on the first day yields no revenue.
+            previousRevenue = 0;
+            lastZeroDay = 0;
+            bestRevenue = 0;
+            bestDayToBuyOn = 0;
+            bestDayToSellOn = 0;
+        } else {
+            double revenue = previousRevenue - previousPrice + price;
+            if (revenue < 0) {
+                // Selling on this day, given previous best day to buy on, yields negative revenue.
+                revenue = 0;
+            }
+            if (revenue == 0) {
+                lastZeroDay = numOfDays;
+            } else if (revenue > bestRevenue) {
+                bestRevenue = revenue;
+                bestDayToBuyOn = lastZeroDay;
+                bestDayToSellOn = numOfDays;
+            }
+            previousRevenue = revenue;
+        }
+        previousPrice = price;
+        numOfDays++;
+    }
+
+    /**
+     * Process the prices of the next several days.
+     * @param prices        - Prices to process, in order.
+     * @param startIndex    - Starting index (inclusive)
+     * @param endIndex      - Ending index (exclusive)
+     */
+    public void update(double[] prices, int startIndex, int endIndex) {
+        for (int i=startIndex; i<endIndex; i++) {
+            update(prices[i]);
+        }
+    }
+
+    public void update(double[] prices) {
+        update(prices, 0, prices.length);
+    }
+
+    /**
+     * Forget all prices seen so far.
+     */
+    public void reset() {
+        numOfDays = 0;
+    }
+
+    public long getNumOfDays() {return this.numOfDays;}
+
+    /**
+     * @return The maximum revenue over the prices seen so far. Same value as BuySellDays.DPValue().
+     */
+    public double getRevenue() {
+        checkNotEmpty();
+        return bestRevenue;
+    }
+
+    public long getDayToBuyOn() {
+        checkNotEmpty();
+        return bestDayToBuyOn;
+    }
+
+    public long getDayToSellOn() {
+        checkNotEmpty();
+        return bestDayToSellOn;
+    }
+
+    /**
+     * Write the current best days into result, without allocating. Days past Integer.MAX_VALUE do not fit
+     * in result; use getDayToBuyOn() and getDayToSellOn() for streams that long.
+     * @param result        - Array to write into. result[offset] is the buy day, result[offset+1] the sell day.
+     * @param offset        - Index of result to start writing at.
+     * @throws ArithmeticException if a day does not fit in an int.
+     */
+    public void getResult(int[] result, int offset) {
+        checkNotEmpty();
+        result[offset] = Math.toIntExact(bestDayToBuyOn);
+        result[offset + 1] = Math.toIntExact(bestDayToSellOn);
+    }
+
+    /**
+     * @return An int 1x2 array. First and second values indicating indices to buy and sell.
+     */
+    public int[] getResult() {
+        int[] result = new int[2];
+        getResult(result, 0);
+        return result;
+    }
+
+    private void checkNotEmpty() {
+        if (numOfDays == 0) {
+            throw new IllegalStateException("No prices have been processed.");
+        }
+    }
+}
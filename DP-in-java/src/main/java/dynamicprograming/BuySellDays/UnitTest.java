@@ -3,6 +3,14 @@ package dynamicprograming.BuySellDays;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 public class UnitTest {
 
     double[] prices1 = {2,5,8,7,15,14,30,20,15,2,3,7};
@@ -46,4 +54,304 @@ public class UnitTest {
         BuySellDays buySellDays = new BuySellDays(prices2);
         assertArrayEquals(solution2, buySellDays.DP());
     }
+
+    @Test
+    public void Streaming1() {
+        StreamingBuySellDays streaming = new StreamingBuySellDays();
+        streaming.update(prices1);
+        assertArrayEquals(solution1, streaming.getResult());
+    }
+
+    @Test
+    public void Streaming2() {
+        StreamingBuySellDays streaming = new StreamingBuySellDays();
+        streaming.update(prices2);
+        assertArrayEquals(solution2, streaming.getResult());
+    }
+
+    @Test
+    public void StreamingPrefixes() {
+        double[] prices = Runtimes.getPrices(500);
+        StreamingBuySellDays streaming = new StreamingBuySellDays();
+        for (int i=0; i<prices.length; i++) {
+            streaming.update(prices[i]);
+            BuySellDays buySellDays = new BuySellDays(Arrays.copyOf(prices, i+1));
+            assertArrayEquals(buySellDays.DP(), streaming.getResult());
+            assertEquals(buySellDays.DPValue(), streaming.getRevenue(), 0);
+        }
+    }
+
+    @Test
+    public void StreamingPastIntDays() throws ReflectiveOperationException {
+        StreamingBuySellDays streaming = new StreamingBuySellDays();
+        streaming.update(5);
+        // Skip ahead to the last day an int can hold.
+        setField(streaming, "numOfDays", (long) Integer.MAX_VALUE);
+        streaming.update(1);
+        streaming.update(3);
+        assertEquals(Integer.MAX_VALUE, streaming.getDayToBuyOn());
+        assertEquals(Integer.MAX_VALUE + 1L, streaming.getDayToSellOn());
+        assertEquals(2, streaming.getRevenue(), 0);
+        try {
+            streaming.getResult();
+            fail("The sell day does not fit in an int.");
+        } catch (ArithmeticException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void Parallel1() {
+        ParallelBuySellDays parallel = new ParallelBuySellDays(ForkJoinPool.commonPool(), 2);
+        assertArrayEquals(solution1, parallel.DP(prices1));
+        assertArrayEquals(solution2, parallel.DP(prices2));
+    }
+
+    @Test
+    public void ParallelMatchesDP() {
+        // Integer prices, so there are many ties and revenues are computed exactly.
+        Random rd = new Random(42);
+        for (int test=0; test<200; test++) {
+            double[] prices = getIntegerPrices(rd, 1 + rd.nextInt(300), 1 + rd.nextInt(20));
+            int[] expected = new BuySellDays(prices).DP();
+            for (int threshold : new int[]{1, 3, 16}) {
+                ParallelBuySellDays parallel = new ParallelBuySellDays(ForkJoinPool.commonPool(), threshold);
+                assertArrayEquals(expected, parallel.DP(prices));
+            }
+        }
+    }
+
+    @Test
+    public void RangeQueries() {
+        Random rd = new Random(7);
+        double[] prices = getIntegerPrices(rd, 137, 25);
+        RangeProfitIndex index = new RangeProfitIndex(prices);
+        for (int test=0; test<500; test++) {
+            if (test % 10 == 0) {
+                int day = rd.nextInt(prices.length);
+                prices[day] = rd.nextInt(25);
+                index.update(day, prices[day]);
+            }
+            int l = rd.nextInt(prices.length);
+            int r = l + rd.nextInt(prices.length - l);
+            int[] expected = new BuySellDays(Arrays.copyOfRange(prices, l, r+1)).DP();
+            expected[0] += l;
+            expected[1] += l;
+            assertArrayEquals(expected, index.query(l, r));
+        }
+    }
+
+    @Test
+    public void RangeBatchQueries() {
+        Random rd = new Random(11);
+        double[] prices = getIntegerPrices(rd, 64, 10);
+        RangeProfitIndex index = new RangeProfitIndex(prices);
+        int[] lefts = new int[100], rights = new int[100], results = new int[200];
+        for (int q=0; q<lefts.length; q++) {
+            lefts[q] = rd.nextInt(prices.length);
+            rights[q] = lefts[q] + rd.nextInt(prices.length - lefts[q]);
+        }
+        index.query(lefts, rights, results);
+        for (int q=0; q<lefts.length; q++) {
+            assertArrayEquals(index.query(lefts[q], rights[q]), Arrays.copyOfRange(results, 2*q, 2*q+2));
+        }
+    }
+
+    @Test
+    public void SlidingWindowMatchesDP() {
+        Random rd = new Random(3);
+        double[] prices = getIntegerPrices(rd, 300, 15);
+        for (int windowSize : new int[]{1, 2, 5, 8, 33}) {
+            SlidingWindowBuySellDays window = new SlidingWindowBuySellDays(windowSize);
+            for (int day=0; day<prices.length; day++) {
+                window.update(prices[day]);
+                int start = Math.max(0, day - windowSize + 1);
+                assertEquals(start, window.getWindowStart());
+                int[] expected = new BuySellDays(Arrays.copyOfRange(prices, start, day+1)).DP();
+                expected[0] += start;
+                expected[1] += start;
+                assertArrayEquals(expected, window.getResult());
+            }
+        }
+    }
+
+    @Test
+    public void SlidingWindowPastIntDays() throws ReflectiveOperationException {
+        Random rd = new Random(4);
+        double[] prices = getIntegerPrices(rd, 300, 15);
+        // Start shortly before the day counter leaves the int range.
+        long firstDay = Integer.MAX_VALUE - 20;
+        for (int windowSize : new int[]{1, 5, 8, 33}) {
+            SlidingWindowBuySellDays window = new SlidingWindowBuySellDays(windowSize);
+            for (String field : new String[]{"windowStart", "backStart", "numOfDays"}) {
+                setField(window, field, firstDay);
+            }
+            for (int day=0; day<prices.length; day++) {
+                window.update(prices[day]);
+                int start = Math.max(0, day - windowSize + 1);
+                assertEquals(firstDay + start, window.getWindowStart());
+                BuySellDays buySellDays = new BuySellDays(Arrays.copyOfRange(prices, start, day+1));
+                int[] expected = buySellDays.DP();
+                assertEquals(firstDay + start + expected[0], window.getDayToBuyOn());
+                assertEquals(firstDay + start + expected[1], window.getDayToSellOn());
+                assertEquals(buySellDays.DPValue(), window.getRevenue(), 0);
+            }
+            try {
+                window.getResult();
+                fail("The days do not fit in an int.");
+            } catch (ArithmeticException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void BatchMatchesDP() {
+        Random rd = new Random(5);
+        double[][] series = new double[300][];
+        int[] offsets = new int[series.length + 1];
+        for (int s=0; s<series.length; s++) {
+            // Mix of empty, short and long series.
+            series[s] = Runtimes.getPrices(s % 50 == 0 ? 0 : rd.nextInt(s % 7 == 0 ? 2000 : 40));
+            offsets[s+1] = offsets[s] + series[s].length;
+        }
+        double[] flat = new double[offsets[series.length]];
+        for (int s=0; s<series.length; s++) {
+            System.arraycopy(series[s], 0, flat, offsets[s], series[s].length);
+        }
+
+        BatchBuySellDays batch = new BatchBuySellDays(ForkJoinPool.commonPool(), 100);
+        int[] raggedResults = new int[2 * series.length];
+        int[] flatResults = new int[2 * series.length];
+        batch.DP(series, raggedResults);
+        batch.DP(flat, offsets, flatResults);
+        for (int s=0; s<series.length; s++) {
+            int[] expected = series[s].length == 0 ? new int[]{-1, -1} : new BuySellDays(series[s]).DP();
+            assertArrayEquals(expected, Arrays.copyOfRange(raggedResults, 2*s, 2*s+2));
+            assertArrayEquals(expected, Arrays.copyOfRange(flatResults, 2*s, 2*s+2));
+        }
+    }
+
+    @Test
+    public void KTransactions() {
+        double[] prices = {3,2,6,5,0,3};
+        assertArrayEquals(new int[][]{{1,2},{4,5}}, KTransactionsBuySellDays.solve(prices, 2));
+        assertArrayEquals(new int[][]{{1,2}}, KTransactionsBuySellDays.solve(prices, 1));
+        assertArrayEquals(new int[][]{{1,2},{4,5}}, KTransactionsBuySellDays.solve(prices, 3));
+        // Invalid limits are rejected even when the unlimited shortcut would apply.
+        for (int k : new int[]{0, -3}) {
+            for (double[] array : new double[][]{new double[1], prices}) {
+                try {
+                    KTransactionsBuySellDays.solve(array, k);
+                    fail("At least one transaction must be allowed.");
+                } catch (IllegalArgumentException e) {
+                    // Expected.
+                }
+            }
+        }
+    }
+
+    @Test
+    public void KTransactionsMatchesBruteForce() {
+        Random rd = new Random(13);
+        for (int test=0; test<200; test++) {
+            double[] prices = getIntegerPrices(rd, 1 + rd.nextInt(14), 10);
+            for (int k=1; k<=4; k++) {
+                KTransactionsBuySellDays kTransactions = new KTransactionsBuySellDays(k);
+                kTransactions.update(prices);
+                double expected = bruteForceRevenue(prices, 0, k);
+                assertEquals(expected, kTransactions.getRevenue(), 0);
+                assertEquals(expected, revenueOf(prices, kTransactions.getTransactions(), k), 0);
+                assertEquals(expected, revenueOf(prices, KTransactionsBuySellDays.solve(prices, k), k), 0);
+                KTransactionsBuySellDays revenueOnly = new KTransactionsBuySellDays(k, false);
+                revenueOnly.update(prices);
+                assertEquals(expected, revenueOnly.getRevenue(), 0);
+            }
+            KTransactionsBuySellDays oneTransaction = new KTransactionsBuySellDays(1);
+            oneTransaction.update(prices);
+            assertEquals(new BuySellDays(prices).DPValue(), oneTransaction.getRevenue(), 0);
+        }
+    }
+
+    /**
+     * Checks that transactions are ordered and non-overlapping, then returns their total revenue.
+     */
+    private static double revenueOf(double[] prices, int[][] transactions, int k) {
+        assertTrue(transactions.length <= k);
+        double revenue = 0;
+        int lastSellDay = -1;
+        for (int[] transaction : transactions) {
+            assertTrue(lastSellDay < transaction[0] && transaction[0] < transaction[1]);
+            lastSellDay = transaction[1];
+            revenue += prices[transaction[1]] - prices[transaction[0]];
+        }
+        return revenue;
+    }
+
+    private static double bruteForceRevenue(double[] prices, int startDay, int k) {
+        double best = 0;
+        if (k == 0) {
+            return best;
+        }
+        for (int i=startDay; i<prices.length; i++) {
+            for (int j=i+1; j<prices.length; j++) {
+                best = Math.max(best, prices[j] - prices[i] + bruteForceRevenue(prices, j+1, k-1));
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void MappedMatchesDP() throws IOException {
+        double[] prices = Runtimes.getPrices(1000);
+        Path file = Files.createTempFile("prices", ".bin");
+        try {
+            MappedBuySellDays.writePrices(file, prices);
+            BuySellDays buySellDays = new BuySellDays(prices);
+            int[] expected = buySellDays.DP();
+            // Small windows, including one that is not a divisor of the file size.
+            for (int windowSize : new int[]{8, 24, 800, MappedBuySellDays.DEFAULT_WINDOW_SIZE}) {
+                MappedBuySellDays mapped = new MappedBuySellDays(file, windowSize);
+                assertArrayEquals(new long[]{expected[0], expected[1]}, mapped.DP());
+                assertEquals(buySellDays.DPValue(), mapped.DPValue(), 0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void ScansMatchScalar() {
+        Random rd = new Random(17);
+        for (int test=0; test<500; test++) {
+            // Few distinct values, so there are many ties.
+            double[] prices = getIntegerPrices(rd, 1 + rd.nextInt(40), 1 + rd.nextInt(6));
+            int start = rd.nextInt(prices.length);
+            int end = start + 1 + rd.nextInt(prices.length - start);
+            assertEquals(PriceScans.getMinIndexScalar(prices, start, end), PriceScans.getMinIndex(prices, start, end));
+            assertEquals(PriceScans.getMaxIndexScalar(prices, start, end), PriceScans.getMaxIndex(prices, start, end));
+
+            int[] expected = new BuySellDays(Arrays.copyOfRange(prices, start, end)).DP();
+            expected[0] += start;
+            expected[1] += start;
+            assertArrayEquals(expected, PriceScans.getBestWindow(prices, start, end));
+        }
+    }
+
+    /**
+     * Set a private field, to start an engine at a day number that would take too long to reach.
+     */
+    static void setField(Object object, String name, Object value) throws ReflectiveOperationException {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    static double[] getIntegerPrices(Random rd, int numOfDays, int maxPrice) {
+        double[] prices = new double[numOfDays];
+        for (int i=0; i<prices.length; i++) {
+            prices[i] = rd.nextInt(maxPrice);
+        }
+        return prices;
+    }
 }
@@ -0,0 +1,118 @@
+package dynamicprograming.BuySellDays;
+
+/**
+ *  A summary of a window of days that is enough to solve Buy-Sell-Days over the union of two
+ *  adjacent windows, without rescanning either of them. This is the observation DNC() is based on:
+ *  the optimal window of the union either lies in the left window, lies in the right window, or
+ *  buys on the min day of the left window and sells on the max day of the right window.
+ *
+ *  A summary is stored as 4 consecutive ints in an int array, starting at some offset:
+ *      MIN     - the day with the min price (latest one on ties),
+ *      MAX     - the day with the max price (earliest one on ties),
+ *      BUY     - the day to buy on in the best window,
+ *      SELL    - the day to sell on in the best window.
+ *  Storing summaries in int arrays, rather than one object per summary, lets callers keep many of
+ *  them in one flat array.
+ *
+ *  Ties are broken as in BuySellDays.DP(): max revenue first, then the earliest day to sell on,
+ *  then the latest day to buy on. Revenue is computed as prices[SELL] - prices[BUY].
+ *
+ *  Days are looked up in prices as prices[day & mask]. Pass a mask of -1 (all bits set) for a plain
+ *  array, or capacity-1 for a ring buffer whose capacity is a power of two. Days are only compared by
+ *  their difference, so they may wrap around past Integer.MAX_VALUE, as long as the days of the windows
+ *  merged are less than 2^31 apart.
+ */
+final class WindowSummary {
+
+    static final int MIN = 0;
+    static final int MAX = 1;
+    static final int BUY = 2;
+    static final int SELL = 3;
+    // Number of ints used by one summary.
+    static final int SIZE = 4;
+
+    private WindowSummary() {
+
+    }
+
+    /**
+     * Set summary to the window containing only the given day.
+     */
+    static void leaf(int[] summary, int offset, int day) {
+        summary[offset + MIN] = day;
+        summary[offset + MAX] = day;
+        summary[offset + BUY] = day;
+        summary[offset + SELL] = day;
+    }
+
+    /**
+     * Compute the summary of a window in a single pass.
+     * @param prices        - Array of prices.
+     * @param startIndex    - Starting index (inclusive)
+     * @param endIndex      - Ending index (exclusive). Must be larger than startIndex.
+     * @param summary       - Array to write the summary into, at offset.
+     */
+    static void scan(double[] prices, int startIndex, int endIndex, int[] summary, int offset) {
+        int minIndex = startIndex, maxIndex = startIndex;
+        int buyIndex = startIndex, sellIndex = startIndex;
+        double minPrice = prices[startIndex], maxPrice = prices[startIndex];
+        double bestRevenue = 0;
+        for (int i=startIndex+1; i<endIndex; i++) {
+            double price = prices[i];
+            if (price <= minPrice) {
+                minPrice = price;
+                minIndex = i;
+            }
+            if (price > maxPrice) {
+                maxPrice = price;
+                maxIndex = i;
+            }
+            if (price - minPrice > bestRevenue) {
+                bestRevenue = price - minPrice;
+                buyIndex = minIndex;
+                sellIndex = i;
+            }
+        }
+        summary[offset + MIN] = minIndex;
+        summary[offset + MAX] = maxIndex;
+        summary[offset + BUY] = buyIndex;
+        summary[offset + SELL] = sellIndex;
+    }
+
+    /**
+     * Merge the summaries of two adjacent windows, left coming before right.
+     * The result may be written over either of the inputs.
+     */
+    static void merge(double[] prices, int mask,
+                      int[] left, int leftOffset,
+                      int[] right, int rightOffset,
+                      int[] result, int resultOffset) {
+        int leftMin = left[leftOffset + MIN], leftMax = left[leftOffset + MAX];
+        int leftBuy = left[leftOffset + BUY], leftSell = left[leftOffset + SELL];
+        int rightMin = right[rightOffset + MIN], rightMax = right[rightOffset + MAX];
+        int rightBuy = right[rightOffset + BUY], rightSell = right[rightOffset + SELL];
+
+        double leftRevenue = prices[leftSell & mask] - prices[leftBuy & mask];
+        double rightRevenue = prices[rightSell & mask] - prices[rightBuy & mask];
+        double crossRevenue = prices[rightMax & mask] - prices[leftMin & mask];
+
+        // The left window sells earliest, so it wins all ties.
+        int buy = leftBuy, sell = leftSell;
+        if (rightRevenue > leftRevenue || crossRevenue > leftRevenue) {
+            // Both remaining cases sell in the right window. On equal revenue, sell earliest,
+            // then buy latest (which is the right window's buy day).
+            if (crossRevenue > rightRevenue || (crossRevenue == rightRevenue && rightMax - rightSell < 0)) {
+                buy = leftMin;
+                sell = rightMax;
+            } else {
+                buy = rightBuy;
+                sell = rightSell;
+            }
+        }
+
+        result[resultOffset + MIN] = prices[rightMin & mask] <= prices[leftMin & mask] ? rightMin : leftMin;
+        result[resultOffset + MAX] = prices[rightMax & mask] > prices[leftMax & mask] ? rightMax : leftMax;
+        result[resultOffset + BUY] = buy;
+        result[resultOffset + SELL] = sell;
+    }
+}
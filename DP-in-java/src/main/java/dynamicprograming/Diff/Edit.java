@@ -0,0 +1,49 @@
+package dynamicprograming.Diff;
+
+/**
+ * A run of consecutive tokens deleted from sequence A, or inserted from sequence B.
+ *
+ *      DELETE: A[aIndex:aIndex+length) is deleted. bIndex is the position in B the run lines up with.
+ *      INSERT: B[bIndex:bIndex+length) is inserted before A[aIndex].
+ */
+public class Edit {
+
+    public enum Type {INSERT, DELETE}
+
+    private final Type type;
+    private final int aIndex, bIndex, length;
+
+    public Edit(Type type, int aIndex, int bIndex, int length) {
+        this.type = type;
+        this.aIndex = aIndex;
+        this.bIndex = bIndex;
+        this.length = length;
+    }
+
+    public Type getType() {return this.type;}
+
+    public int getAIndex() {return this.aIndex;}
+
+    public int getBIndex() {return this.bIndex;}
+
+    public int getLength() {return this.length;}
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Edit)) {
+            return false;
+        }
+        Edit edit = (Edit) o;
+        return type == edit.type && aIndex == edit.aIndex && bIndex == edit.bIndex && length == edit.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((type.hashCode() * 31 + aIndex) * 31 + bIndex) * 31 + length;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(a=" + aIndex + ", b=" + bIndex + ", length=" + length + ")";
+    }
+}
@@ -0,0 +1,163 @@
+package dynamicprograming.Diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds a shortest edit script turning sequence A[0:N) into B[0:M), with Myers' O(ND) algorithm, where D
+ * is the number of tokens inserted and deleted. The tokens kept are an LCS of A and B, so D = N + M - 2L.
+ *
+ * In the edit graph, a path from (0, 0) to (N, M) moves right (delete a_x), down (insert b_y), or
+ * diagonally along a "snake" of equal tokens for free. Let diagonal k hold the points with x - y = k.
+ * Myers' greedy algorithm finds, for d = 0, 1, ..., the furthest reaching path with d edits on each
+ * diagonal k in [-d, d]:
+ *      V[k] = the largest x reached, from one more edit off V[k-1] or V[k+1], then following the snake.
+ * So the cost is O((N+M)D) rather than the O(NM) of filling a dpMatrix, which is what makes diffing
+ * near identical files fast.
+ *
+ * Keeping every V to recover the path would take O(D^2) memory. Instead (the linear space refinement),
+ * search forward from (0, 0) and backward from (N, M) at the same time, until the paths overlap on some
+ * diagonal. The snake where they meet, the middle snake, lies on an optimal path with about D/2 edits on
+ * either side of it, so the problem splits into the parts before and after it. Each part is solved the
+ * same way, in O(N+M) memory overall.
+ *
+ * Before searching, common prefixes and suffixes are skipped in linear time.
+ */
+public class MyersDiff {
+
+    private final int[] A, B;
+    // The furthest reaching x of the forward and backward searches, by diagonal plus offset.
+    private final int[] forward, backward;
+    private final int offset;
+    private final List<Edit> edits = new ArrayList<>();
+
+    private MyersDiff(int[] A, int[] B) {
+        this.A = A;
+        this.B = B;
+        int max = (A.length + B.length + 1) / 2 + 1;
+        this.offset = max;
+        this.forward = new int[2 * max + 1];
+        this.backward = new int[2 * max + 1];
+    }
+
+    /**
+     * @return The edit script turning A into B, as runs of deletions and insertions in order of position.
+     */
+    public static List<Edit> diff(int[] A, int[] B) {
+        MyersDiff myersDiff = new MyersDiff(A, B);
+        myersDiff.diff(0, A.length, 0, B.length);
+        return myersDiff.edits;
+    }
+
+    public static List<Edit> diff(List<String> A, List<String> B) {
+        TokenInterner interner = new TokenInterner();
+        return diff(interner.intern(A), interner.intern(B));
+    }
+
+    public static List<Edit> diff(String[] A, String[] B) {
+        TokenInterner interner = new TokenInterner();
+        return diff(interner.intern(A), interner.intern(B));
+    }
+
+    /**
+     * Add the edits turning A[aLow:aHigh) into B[bLow:bHigh).
+     */
+    private void diff(int aLow, int aHigh, int bLow, int bHigh) {
+        // Skip the common prefix and suffix.
+        while (aLow < aHigh && bLow < bHigh && A[aLow] == B[bLow]) {
+            aLow++;
+            bLow++;
+        }
+        while (aLow < aHigh && bLow < bHigh && A[aHigh - 1] == B[bHigh - 1]) {
+            aHigh--;
+            bHigh--;
+        }
+        if (aLow == aHigh) {
+            addEdit(Edit.Type.INSERT, aLow, bLow, bHigh - bLow);
+            return;
+        }
+        if (bLow == bHigh) {
+            addEdit(Edit.Type.DELETE, aLow, bLow, aHigh - aLow);
+            return;
+        }
+        // After trimming, D >= 2, and both sides of the middle snake have fewer edits.
+        int[] snake = middleSnake(aLow, aHigh, bLow, bHigh);
+        diff(aLow, snake[0], bLow, snake[1]);
+        diff(snake[2], aHigh, snake[3], bHigh);
+    }
+
+    /**
+     * @return The middle snake of A[aLow:aHigh) and B[bLow:bHigh), as {x start, y start, x end, y end}.
+     */
+    private int[] middleSnake(int aLow, int aHigh, int bLow, int bHigh) {
+        int N = aHigh - aLow, M = bHigh - bLow;
+        int delta = N - M;
+        boolean odd = (delta & 1) != 0;
+        int max = (N + M + 1) / 2;
+        // x is relative to aLow. The backward search runs on the reversed sequences, so its x counts
+        // tokens from aHigh, and its diagonal c corresponds to forward diagonal delta - c.
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        for (int d=0; d<=max; d++) {
+            for (int k=-d; k<=d; k+=2) {
+                int x;
+                if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                    x = forward[offset + k + 1];
+                } else {
+                    x = forward[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                int xStart = x, yStart = y;
+                while (x < N && y < M && A[aLow + x] == B[bLow + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                int c = delta - k;
+                if (odd && c >= -(d - 1) && c <= d - 1 && x >= N - backward[offset + c]) {
+                    return new int[] {aLow + xStart, bLow + yStart, aLow + x, bLow + y};
+                }
+            }
+            for (int c=-d; c<=d; c+=2) {
+                int x;
+                if (c == -d || (c != d && backward[offset + c - 1] < backward[offset + c + 1])) {
+                    x = backward[offset + c + 1];
+                } else {
+                    x = backward[offset + c - 1] + 1;
+                }
+                int y = x - c;
+                int xStart = x, yStart = y;
+                while (x < N && y < M && A[aHigh - 1 - x] == B[bHigh - 1 - y]) {
+                    x++;
+                    y++;
+                }
+                backward[offset + c] = x;
+                int k = delta - c;
+                if (!odd && k >= -d && k <= d && forward[offset + k] >= N - x) {
+                    return new int[] {aHigh - x, bHigh - y, aHigh - xStart, bHigh - yStart};
+                }
+            }
+        }
+        throw new IllegalStateException("The forward and backward searches did not meet.");
+    }
+
+    /**
+     * Add an edit, extending the previous edit if it is of the same type and adjacent.
+     */
+    private void addEdit(Edit.Type type, int aIndex, int bIndex, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (!edits.isEmpty()) {
+            Edit last = edits.get(edits.size() - 1);
+            boolean adjacent = type == Edit.Type.DELETE
+                    ? last.getAIndex() + last.getLength() == aIndex && last.getBIndex() == bIndex
+                    : last.getBIndex() + last.getLength() == bIndex && last.getAIndex() == aIndex;
+            if (last.getType() == type && adjacent) {
+                edits.set(edits.size() - 1, new Edit(type, last.getAIndex(), last.getBIndex(), last.getLength() + length));
+                return;
+            }
+        }
+        edits.add(new Edit(type, aIndex, bIndex, length));
+    }
+}
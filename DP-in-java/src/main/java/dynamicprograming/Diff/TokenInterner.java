@@ -0,0 +1,107 @@
+package dynamicprograming.Diff;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps tokens (e.g. the lines of a file) to int ids, so that sequences of tokens can be compared with ==
+ * on ints. Equal tokens get the same id, and ids are assigned in order of first appearance, from 0.
+ *
+ * The ids are kept in an open addressing hash table with linear probing: a token's slot is its hash
+ * masked by the table's capacity (a power of two), and a collision moves on to the next slot. The table is
+ * doubled when more than half full, so probes stay short. Unlike a HashMap<String, Integer>, no entry or
+ * Integer objects are allocated per token, and the hash of each slot is stored so most mismatches are
+ * rejected without comparing strings.
+ */
+public class TokenInterner {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    // slots[s] is the id in slot s plus 1, or 0 if the slot is empty.
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] slotHashes = new int[INITIAL_CAPACITY];
+    // tokens[id] is the token with that id.
+    private String[] tokens = new String[INITIAL_CAPACITY / 2];
+    private int size = 0;
+
+    /**
+     * @return The id of token, assigning the next id if it is new.
+     */
+    public int intern(String token) {
+        int hash = mix(token.hashCode());
+        int mask = slots.length - 1;
+        int s = hash & mask;
+        while (slots[s] != 0) {
+            int id = slots[s] - 1;
+            if (slotHashes[s] == hash && tokens[id].equals(token)) {
+                return id;
+            }
+            s = (s + 1) & mask;
+        }
+        int id = size++;
+        if (id == tokens.length) {
+            tokens = Arrays.copyOf(tokens, 2 * tokens.length);
+        }
+        tokens[id] = token;
+        slots[s] = id + 1;
+        slotHashes[s] = hash;
+        if (2 * size > slots.length) {
+            resize();
+        }
+        return id;
+    }
+
+    public int[] intern(List<String> tokens) {
+        int[] ids = new int[tokens.size()];
+        for (int i=0; i<ids.length; i++) {
+            ids[i] = intern(tokens.get(i));
+        }
+        return ids;
+    }
+
+    public int[] intern(String[] tokens) {
+        int[] ids = new int[tokens.length];
+        for (int i=0; i<ids.length; i++) {
+            ids[i] = intern(tokens[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * @return The token with the given id.
+     */
+    public String getToken(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("No token has id " + id);
+        }
+        return tokens[id];
+    }
+
+    public int size() {return this.size;}
+
+    private void resize() {
+        int[] newSlots = new int[2 * slots.length];
+        int[] newHashes = new int[newSlots.length];
+        int mask = newSlots.length - 1;
+        for (int s=0; s<slots.length; s++) {
+            if (slots[s] != 0) {
+                int t = slotHashes[s] & mask;
+                while (newSlots[t] != 0) {
+                    t = (t + 1) & mask;
+                }
+                newSlots[t] = slots[s];
+                newHashes[t] = slotHashes[s];
+            }
+        }
+        slots = newSlots;
+        slotHashes = newHashes;
+    }
+
+    /**
+     * Spread the bits of String.hashCode, whose low bits are poor for similar short strings.
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,139 @@
+package dynamicprograming.Diff;
+
+import dynamicprograming.LongestCommonSubsequence.BitParallelLCS;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class UnitTest {
+
+    @Test
+    public void testInterner() {
+        TokenInterner interner = new TokenInterner();
+        // Enough tokens to resize the table several times.
+        for (int round=0; round<2; round++) {
+            for (int i=0; i<10_000; i++) {
+                Assert.assertEquals(i, interner.intern("line " + i));
+            }
+        }
+        Assert.assertEquals(10_000, interner.size());
+        Assert.assertEquals("line 42", interner.getToken(42));
+        // "Aa" and "BB" have the same hashCode.
+        Assert.assertNotEquals(interner.intern("Aa"), interner.intern("BB"));
+    }
+
+    @Test
+    public void testDiff() {
+        String[] A = {"a", "b", "c", "a", "b", "b", "a"};
+        String[] B = {"c", "b", "a", "b", "a", "c"};
+        List<Edit> edits = MyersDiff.diff(A, B);
+        TokenInterner interner = new TokenInterner();
+        int[] a = interner.intern(A), b = interner.intern(B);
+        Assert.assertArrayEquals(b, apply(a, b, edits));
+        // The LCS has length 4, so 7 + 6 - 2*4 = 5 tokens are edited.
+        Assert.assertEquals(5, countEdited(edits));
+
+        Assert.assertEquals(new ArrayList<Edit>(), MyersDiff.diff(A, A));
+        Assert.assertEquals(Arrays.asList(new Edit(Edit.Type.INSERT, 0, 0, 6)), MyersDiff.diff(new String[0], B));
+        Assert.assertEquals(Arrays.asList(new Edit(Edit.Type.DELETE, 0, 0, 7)), MyersDiff.diff(A, new String[0]));
+    }
+
+    @Test
+    public void testRandomDiffs() {
+        Random rd = new Random(22);
+        for (int test=0; test<2_000; test++) {
+            int alphabetSize = 1 + rd.nextInt(10);
+            int[] a = randomTokens(rd, rd.nextInt(60), alphabetSize);
+            int[] b = randomTokens(rd, rd.nextInt(60), alphabetSize);
+            checkDiff(a, b);
+        }
+    }
+
+    @Test
+    public void testNearlyEqualDiffs() {
+        Random rd = new Random(23);
+        for (int test=0; test<50; test++) {
+            int[] a = randomTokens(rd, 5_000, 1_000);
+            // Delete, insert and change a few tokens.
+            List<Integer> b = new ArrayList<>();
+            for (int token : a) {
+                int r = rd.nextInt(500);
+                if (r == 0) {
+                    continue;
+                } else if (r == 1) {
+                    b.add(rd.nextInt(1_000));
+                } else if (r == 2) {
+                    b.add(-1);
+                }
+                b.add(token);
+            }
+            int[] bArray = new int[b.size()];
+            for (int j=0; j<bArray.length; j++) {
+                bArray[j] = b.get(j);
+            }
+            checkDiff(a, bArray);
+        }
+    }
+
+    /**
+     * Check the edits turn a into b, and are as few as possible.
+     */
+    static void checkDiff(int[] a, int[] b) {
+        List<Edit> edits = MyersDiff.diff(a, b);
+        Assert.assertArrayEquals(b, apply(a, b, edits));
+        int lcsLength = new BitParallelLCS(a).lcsLength(b);
+        Assert.assertEquals(a.length + b.length - 2 * lcsLength, countEdited(edits));
+    }
+
+    /**
+     * @return a with the edits applied, taking inserted tokens from b.
+     */
+    static int[] apply(int[] a, int[] b, List<Edit> edits) {
+        List<Integer> result = new ArrayList<>();
+        int x = 0;
+        for (Edit edit : edits) {
+            Assert.assertTrue(edit.getLength() > 0);
+            Assert.assertTrue(edit.getAIndex() >= x);
+            while (x < edit.getAIndex()) {
+                result.add(a[x++]);
+            }
+            // Kept tokens line up in a and b.
+            Assert.assertEquals(edit.getBIndex(), result.size());
+            if (edit.getType() == Edit.Type.DELETE) {
+                x += edit.getLength();
+            } else {
+                for (int j=edit.getBIndex(); j<edit.getBIndex()+edit.getLength(); j++) {
+                    result.add(b[j]);
+                }
+            }
+        }
+        while (x < a.length) {
+            result.add(a[x++]);
+        }
+        int[] array = new int[result.size()];
+        for (int i=0; i<array.length; i++) {
+            array[i] = result.get(i);
+        }
+        return array;
+    }
+
+    static int countEdited(List<Edit> edits) {
+        int count = 0;
+        for (Edit edit : edits) {
+            count += edit.getLength();
+        }
+        return count;
+    }
+
+    static int[] randomTokens(Random rd, int length, int alphabetSize) {
+        int[] tokens = new int[length];
+        for (int i=0; i<length; i++) {
+            tokens[i] = rd.nextInt(alphabetSize);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,155 @@
+package dynamicprograming.LongestCommonSubsequence;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Computes the length of the LCS of a fixed string X[1:m] with other strings Y[1:n], 64 cells of the
+ * dpMatrix per machine word (Hyyro's variant of the Allison-Dix algorithm).
+ *
+ * Down a column j of dpMatrix, L[i,j] - L[i-1,j] is either 0 or 1. So column j can be stored as a bit
+ * vector V_j of m bits, where bit i-1 is 0 exactly when L[i,j] = 1 + L[i-1,j], and L[m,j] is the number of
+ * 0 bits. For each character c of the alphabet, let the match mask M_c have bit i-1 set when x_i == c.
+ * Then the next column follows from the current one with word operations, for y_j:
+ *      U = V & M_(y_j)
+ *      V' = (V + U) | (V & ~M_(y_j))
+ * The addition carries across words, so each column costs O(m/64) operations, and the whole LCS length
+ * costs O(mn/64) time, with O(sm/64) memory for the masks of the s distinct characters of X.
+ *
+ * The masks are computed once in the constructor, so one BitParallelLCS can be compared against many
+ * strings Y. Each comparison needs a workspace of getWorkspaceSize() longs; it may be passed in and reused,
+ * so a thread comparing many strings allocates nothing.
+ */
+public class BitParallelLCS {
+
+    // Map characters (or tokens) of X to rows of matchMasks.
+    private final HashMap<Integer, Integer> alphabetMap = new HashMap<>();
+    // Rows of matchMasks for characters below 256, or -1 if the character is not in X. Avoids boxing.
+    private final int[] latinSymbols = new int[256];
+    // matchMasks[symbol][w] holds bits 64w to 64w+63 of the match mask of the symbol.
+    private final long[][] matchMasks;
+    private final int length;
+    private final int numOfWords;
+
+    public BitParallelLCS(String X) {
+        this(toTokens(X));
+    }
+
+    /**
+     * @param X - A sequence of tokens, e.g. interned words or lines.
+     */
+    public BitParallelLCS(int[] X) {
+        this.length = X.length;
+        this.numOfWords = (length + 63) >>> 6;
+        Arrays.fill(latinSymbols, -1);
+        for (int token : X) {
+            if (!alphabetMap.containsKey(token)) {
+                int symbol = alphabetMap.size();
+                alphabetMap.put(token, symbol);
+                if (token >= 0 && token < latinSymbols.length) {
+                    latinSymbols[token] = symbol;
+                }
+            }
+        }
+        matchMasks = new long[alphabetMap.size()][numOfWords];
+        for (int i=0; i<length; i++) {
+            matchMasks[alphabetMap.get(X[i])][i >>> 6] |= 1L << i;
+        }
+    }
+
+    /**
+     * @return The number of longs needed by lcsLength's workspace.
+     */
+    public int getWorkspaceSize() {return this.numOfWords;}
+
+    public int getLength() {return this.length;}
+
+    public int lcsLength(String Y) {
+        return lcsLength(Y, new long[numOfWords]);
+    }
+
+    public int lcsLength(String Y, long[] workspace) {
+        long[] V = initWorkspace(workspace);
+        for (int j=0; j<Y.length(); j++) {
+            int symbol = symbolOf(Y.charAt(j));
+            if (symbol >= 0) {
+                advance(V, matchMasks[symbol]);
+            }
+        }
+        return countZeros(V);
+    }
+
+    public int lcsLength(int[] Y) {
+        return lcsLength(Y, new long[numOfWords]);
+    }
+
+    public int lcsLength(int[] Y, long[] workspace) {
+        long[] V = initWorkspace(workspace);
+        for (int token : Y) {
+            int symbol = symbolOf(token);
+            if (symbol >= 0) {
+                advance(V, matchMasks[symbol]);
+            }
+        }
+        return countZeros(V);
+    }
+
+    /**
+     * @return The row of matchMasks for token, or -1 if token does not occur in X.
+     */
+    int symbolOf(int token) {
+        if (token >= 0 && token < latinSymbols.length) {
+            return latinSymbols[token];
+        }
+        Integer symbol = alphabetMap.get(token);
+        return symbol == null ? -1 : symbol;
+    }
+
+    /**
+     * @return The match mask of token, or null if token does not occur in X.
+     */
+    long[] getMatchMask(int token) {
+        int symbol = symbolOf(token);
+        return symbol < 0 ? null : matchMasks[symbol];
+    }
+
+    private long[] initWorkspace(long[] workspace) {
+        if (workspace.length < numOfWords) {
+            throw new IllegalArgumentException("Workspace must hold at least " + numOfWords + " longs.");
+        }
+        // All bits set: L[i,0] = 0 for every i. Bits past the last row stay set, as their masks are 0.
+        Arrays.fill(workspace, 0, numOfWords, -1L);
+        return workspace;
+    }
+
+    /**
+     * Replace column V with the next column, for a character with match mask M.
+     */
+    static void advance(long[] V, long[] M) {
+        long carry = 0;
+        for (int w=0; w<M.length; w++) {
+            long v = V[w], m = M[w];
+            long u = v & m;
+            long sum = v + u + carry;
+            // Carry out of the top bit, as in a full adder.
+            carry = ((v & u) | ((v | u) & ~sum)) >>> 63;
+            V[w] = sum | (v & ~m);
+        }
+    }
+
+    private int countZeros(long[] V) {
+        int ones = 0;
+        for (int w=0; w<numOfWords; w++) {
+            ones += Long.bitCount(V[w]);
+        }
+        return (numOfWords << 6) - ones;
+    }
+
+    static int[] toTokens(String X) {
+        int[] tokens = new int[X.length()];
+        for (int i=0; i<tokens.length; i++) {
+            tokens[i] = X.charAt(i);
+        }
+        return tokens;
+    }
+}
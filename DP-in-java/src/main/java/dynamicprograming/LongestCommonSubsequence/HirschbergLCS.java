@@ -0,0 +1,269 @@
+package dynamicprograming.LongestCommonSubsequence;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds a longest common subsequence of X[1:m] and Y[1:n] itself, not just its length, in O(min(m,n))
+ * memory (Hirschberg's algorithm).
+ *
+ * LCS keeps the whole dpMatrix so that it could backtrack through it. Instead, split X in half at row
+ * mid, and compute with two rows at a time:
+ *      F[k] = the LCS length of X[1:mid] and Y[1:k], by a forward pass over the top half.
+ *      B[k] = the LCS length of X[mid+1:m] and Y[k+1:n], by a backward pass over the bottom half.
+ * Some LCS passes through the k maximizing F[k] + B[k]: it is an LCS of X[1:mid] and Y[1:k] followed by an
+ * LCS of X[mid+1:m] and Y[k+1:n]. Both halves are solved recursively, and as the first half contributes
+ * exactly F[k] matches, the second half knows where to write its matches before the first is done. So
+ * the two halves, and the forward and backward passes, run in parallel as fork-join tasks. Each level
+ * of the recursion halves the number of cells, so the total work is O(mn), about twice that of LCS.
+ *
+ * Subproblems with at most cutoff cells are solved with a full dpMatrix and backtracking instead.
+ *
+ * The output is sized from the split of the whole problem, F[k] + B[k] being the LCS length, so no other
+ * pass (or per token mask, as in BitParallelLCS, which would take O(numOfTokens * n) memory) is needed.
+ *
+ * The passes keep rows over the shorter of the two strings, so X and Y are swapped when Y is longer.
+ */
+public class HirschbergLCS {
+
+    // Subproblems with at most this many cells are solved with a full dpMatrix.
+    public static final int DEFAULT_CUTOFF = 1 << 16;
+
+    // The input sequences, as tokens. X is the longer of the two.
+    private final int[] X, Y;
+    private final boolean swapped;
+    // The input strings, if given as strings.
+    private String stringX;
+
+    // The matches of the LCS: X[xIndices[t]] == Y[yIndices[t]], 0-indexed, in increasing order.
+    private int[] xIndices, yIndices;
+
+    public HirschbergLCS(String X, String Y) {
+        this(BitParallelLCS.toTokens(X), BitParallelLCS.toTokens(Y));
+        this.stringX = X;
+    }
+
+    public HirschbergLCS(int[] X, int[] Y) {
+        this.swapped = X.length < Y.length;
+        this.X = swapped ? Y : X;
+        this.Y = swapped ? X : Y;
+    }
+
+    public void computeLCS() {
+        computeLCS(ForkJoinPool.commonPool(), DEFAULT_CUTOFF);
+    }
+
+    /**
+     * @param cutoff    - Subproblems with at most this many cells are solved with a full dpMatrix.
+     */
+    public void computeLCS(ForkJoinPool pool, int cutoff) {
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be positive: " + cutoff);
+        }
+        int m = X.length, n = Y.length;
+        int[] matchesX, matchesY;
+        if (m <= 1 || (long) m * n <= cutoff) {
+            // The length of the LCS, to size the output, from at most cutoff cells.
+            int[] forward = new int[n + 1];
+            forwardScores(X, Y, 0, m, 0, n, forward);
+            matchesX = new int[forward[n]];
+            matchesY = new int[forward[n]];
+            pool.invoke(new SolveTask(X, Y, 0, m, 0, n, matchesX, matchesY, 0, cutoff));
+        } else {
+            // Split the whole problem here, which gives the length of the LCS to size the output.
+            int[] split = pool.invoke(ForkJoinTask.adapt(() -> split(X, Y, 0, m, 0, n)));
+            matchesX = new int[split[2]];
+            matchesY = new int[split[2]];
+            int mid = m >>> 1;
+            SolveTask top = new SolveTask(X, Y, 0, mid, 0, split[0], matchesX, matchesY, 0, cutoff);
+            SolveTask bottom = new SolveTask(X, Y, mid, m, split[0], n, matchesX, matchesY, split[1], cutoff);
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(top, bottom)));
+        }
+        xIndices = swapped ? matchesY : matchesX;
+        yIndices = swapped ? matchesX : matchesY;
+    }
+
+    public int getLCSLength() {
+        return getXIndices().length;
+    }
+
+    /**
+     * @return The indices into X of the characters of the LCS.
+     */
+    public int[] getXIndices() {
+        if (xIndices == null) {
+            throw new IllegalStateException("computeLCS has not been called.");
+        }
+        return xIndices;
+    }
+
+    /**
+     * @return The indices into Y of the characters of the LCS.
+     */
+    public int[] getYIndices() {
+        if (yIndices == null) {
+            throw new IllegalStateException("computeLCS has not been called.");
+        }
+        return yIndices;
+    }
+
+    /**
+     * @return The LCS, if the inputs were strings.
+     */
+    public String getLCS() {
+        if (stringX == null) {
+            throw new IllegalStateException("The inputs are not strings.");
+        }
+        int[] indices = getXIndices();
+        StringBuilder sb = new StringBuilder(indices.length);
+        for (int i : indices) {
+            sb.append(stringX.charAt(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * forward[k] = the LCS length of X[xl:xr) and Y[yl:yl+k), for k in [0, yr-yl].
+     */
+    static void forwardScores(int[] X, int[] Y, int xl, int xr, int yl, int yr, int[] forward) {
+        int n = yr - yl;
+        Arrays.fill(forward, 0, n + 1, 0);
+        for (int i=xl; i<xr; i++) {
+            int x = X[i];
+            // forward[j-1] of the previous row, and forward[j-1] of this row.
+            int diagonal = 0, left = 0;
+            for (int j=1; j<=n; j++) {
+                int above = forward[j];
+                // Written without branches: matches are too unpredictable for the branch predictor.
+                left = x == Y[yl + j - 1] ? diagonal + 1 : Math.max(left, above);
+                forward[j] = left;
+                diagonal = above;
+            }
+        }
+    }
+
+    /**
+     * backward[k] = the LCS length of X[xl:xr) and Y[yl+k:yr), for k in [0, yr-yl].
+     */
+    static void backwardScores(int[] X, int[] Y, int xl, int xr, int yl, int yr, int[] backward) {
+        int n = yr - yl;
+        Arrays.fill(backward, 0, n + 1, 0);
+        for (int i=xr-1; i>=xl; i--) {
+            int x = X[i];
+            // backward[j+1] of the previous row, and backward[j+1] of this row.
+            int diagonal = 0, right = 0;
+            for (int j=n-1; j>=0; j--) {
+                int below = backward[j];
+                right = x == Y[yl + j] ? diagonal + 1 : Math.max(right, below);
+                backward[j] = right;
+                diagonal = below;
+            }
+        }
+    }
+
+    /**
+     * Splits X[xl:xr) at mid = (xl+xr)/2, with the forward and backward passes in parallel. Must run in a
+     * ForkJoinPool.
+     *
+     * @return {split, F[split], F[split] + B[split]}: some LCS of X[xl:xr) and Y[yl:yr) has F[split]
+     *         matches in X[xl:mid) and Y[yl:yl+split), the rest in X[mid:xr) and Y[yl+split:yr), and has
+     *         length F[split] + B[split].
+     */
+    private static int[] split(int[] X, int[] Y, int xl, int xr, int yl, int yr) {
+        int n = yr - yl;
+        int mid = (xl + xr) >>> 1;
+        int[] forward = new int[n + 1], backward = new int[n + 1];
+        ForkJoinTask.invokeAll(ForkJoinTask.adapt(() -> forwardScores(X, Y, xl, mid, yl, yr, forward)),
+                ForkJoinTask.adapt(() -> backwardScores(X, Y, mid, xr, yl, yr, backward)));
+        int split = 0;
+        for (int k=1; k<=n; k++) {
+            if (forward[k] + backward[k] > forward[split] + backward[split]) {
+                split = k;
+            }
+        }
+        return new int[] {split, forward[split], forward[split] + backward[split]};
+    }
+
+    /**
+     * Finds an LCS of X[xl:xr) and Y[yl:yr), writing its matches to matchesX and matchesY from offset on.
+     */
+    private static class SolveTask extends RecursiveAction {
+
+        private final int[] X, Y, matchesX, matchesY;
+        private final int xl, xr, yl, yr, offset, cutoff;
+
+        SolveTask(int[] X, int[] Y, int xl, int xr, int yl, int yr, int[] matchesX, int[] matchesY, int offset, int cutoff) {
+            this.X = X;
+            this.Y = Y;
+            this.xl = xl;
+            this.xr = xr;
+            this.yl = yl;
+            this.yr = yr;
+            this.matchesX = matchesX;
+            this.matchesY = matchesY;
+            this.offset = offset;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            int m = xr - xl, n = yr - yl;
+            if (m == 0 || n == 0) {
+                return;
+            }
+            if ((long) m * n <= cutoff) {
+                solveWithMatrix();
+                return;
+            }
+            if (m == 1) {
+                for (int j=yl; j<yr; j++) {
+                    if (X[xl] == Y[j]) {
+                        matchesX[offset] = xl;
+                        matchesY[offset] = j;
+                        return;
+                    }
+                }
+                return;
+            }
+
+            int mid = (xl + xr) >>> 1;
+            int[] split = split(X, Y, xl, xr, yl, yr);
+            invokeAll(new SolveTask(X, Y, xl, mid, yl, yl + split[0], matchesX, matchesY, offset, cutoff),
+                    new SolveTask(X, Y, mid, xr, yl + split[0], yr, matchesX, matchesY, offset + split[1], cutoff));
+        }
+
+        /**
+         * Fill the dpMatrix of the subproblem and backtrack through it, as in LCS.
+         */
+        private void solveWithMatrix() {
+            int m = xr - xl, n = yr - yl;
+            int[][] dpMatrix = new int[m + 1][n + 1];
+            for (int i=1; i<=m; i++) {
+                for (int j=1; j<=n; j++) {
+                    if (X[xl + i - 1] == Y[yl + j - 1]) {
+                        dpMatrix[i][j] = 1 + dpMatrix[i-1][j-1];
+                    } else {
+                        dpMatrix[i][j] = Math.max(dpMatrix[i-1][j], dpMatrix[i][j-1]);
+                    }
+                }
+            }
+            int t = offset + dpMatrix[m][n];
+            int i = m, j = n;
+            while (i > 0 && j > 0) {
+                if (X[xl + i - 1] == Y[yl + j - 1]) {
+                    t--;
+                    matchesX[t] = xl + i - 1;
+                    matchesY[t] = yl + j - 1;
+                    i--;
+                    j--;
+                } else if (dpMatrix[i-1][j] >= dpMatrix[i][j-1]) {
+                    i--;
+                } else {
+                    j--;
+                }
+            }
+        }
+    }
+}
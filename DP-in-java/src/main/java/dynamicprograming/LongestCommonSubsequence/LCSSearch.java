@@ -0,0 +1,269 @@
+package dynamicprograming.LongestCommonSubsequence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Finds the candidates with the longest LCS with one query, among a stream of many candidates.
+ *
+ * Building an LCS per candidate allocates and fills an (m+1)x(n+1) dpMatrix each time. Instead:
+ *      - the query is preprocessed once into a BitParallelLCS (its alphabet and match masks), which is
+ *        only read while searching, so it is shared by all workers.
+ *      - numOfWorkers workers pull batches of batchSize candidates from the stream, so the stream is
+ *        only locked once per batch, and score each candidate in O(mn/64) with their own workspace.
+ *      - each worker keeps its best topN candidates in a bounded min heap (the worst kept candidate at
+ *        the root), and the heaps are merged when the stream ends.
+ * So a search allocates O(numOfWorkers * (m/64 + topN)) besides the candidates themselves.
+ *
+ * Candidates are ranked by LCS length, longest first; ties are broken by position in the stream, first
+ * first, so the results do not depend on the number of workers.
+ */
+public class LCSSearch {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final BitParallelLCS query;
+    private final int topN;
+    private final ExecutorService executor;
+    private final int numOfWorkers;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    // Statistics of the last search.
+    private long numOfCandidates;
+    private long elapsedNanos;
+
+    public LCSSearch(String query, int topN, ExecutorService executor, int numOfWorkers) {
+        if (topN < 1) {
+            throw new IllegalArgumentException("topN must be positive: " + topN);
+        }
+        if (numOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + numOfWorkers);
+        }
+        this.query = new BitParallelLCS(query);
+        this.topN = topN;
+        this.executor = executor;
+        this.numOfWorkers = numOfWorkers;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Search the lines of a file, read as UTF-8.
+     */
+    public List<Result> search(Path file) throws IOException, InterruptedException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return search(reader.lines().iterator());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return The best topN candidates, best first.
+     */
+    public List<Result> search(Iterator<String> candidates) throws InterruptedException {
+        long start = System.nanoTime();
+        CandidateStream stream = new CandidateStream(candidates);
+        List<Future<TopResults>> futures = new ArrayList<>();
+        for (int w=0; w<numOfWorkers; w++) {
+            futures.add(executor.submit(() -> work(stream)));
+        }
+
+        TopResults merged = new TopResults(topN);
+        boolean finished = false;
+        try {
+            for (Future<TopResults> future : futures) {
+                TopResults results = future.get();
+                for (int r=0; r<results.size; r++) {
+                    merged.offer(results.scores[r], results.indices[r], results.candidates[r]);
+                }
+            }
+            finished = true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("A search worker failed", e.getCause());
+        } finally {
+            // A failed worker or an interrupt must not leave the others reading the stream.
+            if (!finished) {
+                for (Future<TopResults> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        numOfCandidates = stream.next;
+        elapsedNanos = System.nanoTime() - start;
+        return merged.toSortedList();
+    }
+
+    private TopResults work(CandidateStream stream) {
+        long[] workspace = new long[query.getWorkspaceSize()];
+        TopResults results = new TopResults(topN);
+        String[] batch = new String[batchSize];
+        while (true) {
+            long firstIndex;
+            int count;
+            synchronized (stream) {
+                firstIndex = stream.next;
+                count = 0;
+                while (count < batchSize && stream.candidates.hasNext()) {
+                    batch[count++] = stream.candidates.next();
+                }
+                stream.next += count;
+            }
+            if (count == 0 || Thread.currentThread().isInterrupted()) {
+                return results;
+            }
+            for (int c=0; c<count; c++) {
+                results.offer(query.lcsLength(batch[c], workspace), firstIndex + c, batch[c]);
+            }
+        }
+    }
+
+    /**
+     * @return The number of candidates scored by the last search.
+     */
+    public long getNumOfCandidates() {return this.numOfCandidates;}
+
+    /**
+     * @return The throughput of the last search, in candidates per second.
+     */
+    public double getCandidatesPerSecond() {
+        return elapsedNanos == 0 ? 0 : numOfCandidates * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * A candidate and its LCS length with the query.
+     */
+    public static class Result {
+
+        private final long index;
+        private final String candidate;
+        private final int lcsLength;
+
+        Result(long index, String candidate, int lcsLength) {
+            this.index = index;
+            this.candidate = candidate;
+            this.lcsLength = lcsLength;
+        }
+
+        /**
+         * @return The position of the candidate in the stream, from 0.
+         */
+        public long getIndex() {return this.index;}
+
+        public String getCandidate() {return this.candidate;}
+
+        public int getLCSLength() {return this.lcsLength;}
+
+        @Override
+        public String toString() {
+            return index + ": " + lcsLength + " " + candidate;
+        }
+    }
+
+    /**
+     * The candidates, and the position in the stream of the next one. Workers lock it to take a batch.
+     */
+    private static class CandidateStream {
+
+        private final Iterator<String> candidates;
+        private long next = 0;
+
+        CandidateStream(Iterator<String> candidates) {
+            this.candidates = candidates;
+        }
+    }
+
+    /**
+     * The best candidates seen, in a min heap of at most capacity entries ordered by worse(), kept in
+     * parallel arrays.
+     */
+    private static class TopResults {
+
+        private final int[] scores;
+        private final long[] indices;
+        private final String[] candidates;
+        private int size = 0;
+
+        TopResults(int capacity) {
+            scores = new int[capacity];
+            indices = new long[capacity];
+            candidates = new String[capacity];
+        }
+
+        void offer(int score, long index, String candidate) {
+            if (size < scores.length) {
+                // Sift up.
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!worse(score, index, scores[parent], indices[parent])) {
+                        break;
+                    }
+                    set(i, scores[parent], indices[parent], candidates[parent]);
+                    i = parent;
+                }
+                set(i, score, index, candidate);
+                return;
+            }
+            if (worse(score, index, scores[0], indices[0])) {
+                return;
+            }
+            // Replace the root and sift down.
+            int i = 0;
+            while (2*i + 1 < size) {
+                int child = 2*i + 1;
+                if (child + 1 < size && worse(scores[child + 1], indices[child + 1], scores[child], indices[child])) {
+                    child++;
+                }
+                if (!worse(scores[child], indices[child], score, index)) {
+                    break;
+                }
+                set(i, scores[child], indices[child], candidates[child]);
+                i = child;
+            }
+            set(i, score, index, candidate);
+        }
+
+        private void set(int i, int score, long index, String candidate) {
+            scores[i] = score;
+            indices[i] = index;
+            candidates[i] = candidate;
+        }
+
+        /**
+         * @return True if the first candidate ranks below the second: a shorter LCS, or a tie and later.
+         */
+        private static boolean worse(int score1, long index1, int score2, long index2) {
+            return score1 < score2 || (score1 == score2 && index1 > index2);
+        }
+
+        List<Result> toSortedList() {
+            List<Result> results = new ArrayList<>(size);
+            for (int r=0; r<size; r++) {
+                results.add(new Result(indices[r], candidates[r], scores[r]));
+            }
+            results.sort((a, b) -> a.lcsLength != b.lcsLength
+                    ? Integer.compare(b.lcsLength, a.lcsLength)
+                    : Long.compare(a.index, b.index));
+            return results;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dynamicprograming.LongestCommonSubsequence;
+
+import java.util.HashMap;
+
+/**
+ * Computes the length of the LCS of X[1:m] and a fixed sequence Y[1:n] by visiting only the r match
+ * points (i, j) with x_i == y_j (the Hunt-Szymanski algorithm). Over large alphabets, e.g. lines or
+ * identifiers, r is far smaller than mn.
+ *
+ * Let thresh[k] be the smallest j such that X[1:i] and Y[1:j] have a common subsequence of length k+1.
+ * thresh is strictly increasing, and the LCS length is the number of thresholds set after the last row.
+ * For row i, each match (i, j) can extend a common subsequence of length k ending before column j to one
+ * of length k+1 ending at j, where k is found by a binary search for the first threshold >= j:
+ *      thresh[k] = j
+ * Visiting the matches of a row in decreasing order of j keeps two matches of the same row from
+ * extending each other. So the LCS length costs O((r + m)logn) time and O(n) memory.
+ *
+ * The positions of each token in Y are indexed once in the constructor, in one array grouped by token,
+ * so one SparseLCS can be compared against many sequences X.
+ *
+ * lcsLength(X, Y) counts r exactly from the token histograms of X and Y, and uses whichever of
+ * SparseLCS and BitParallelLCS (O(mn/64)) is expected to be faster.
+ */
+public class SparseLCS {
+
+    // Map tokens of Y to their indices in [0, numOfTokens).
+    private final HashMap<Integer, Integer> alphabetMap = new HashMap<>();
+    // The positions of token t in Y are positions[starts[t]:starts[t+1]), in decreasing order.
+    private final int[] starts;
+    private final int[] positions;
+    private final int length;
+
+    public SparseLCS(String Y) {
+        this(BitParallelLCS.toTokens(Y));
+    }
+
+    public SparseLCS(int[] Y) {
+        this.length = Y.length;
+        int[] tokenIds = new int[Y.length];
+        for (int j=0; j<Y.length; j++) {
+            Integer id = alphabetMap.get(Y[j]);
+            if (id == null) {
+                id = alphabetMap.size();
+                alphabetMap.put(Y[j], id);
+            }
+            tokenIds[j] = id;
+        }
+        // Counting sort of the positions by token.
+        starts = new int[alphabetMap.size() + 1];
+        for (int id : tokenIds) {
+            starts[id + 1]++;
+        }
+        for (int t=0; t<alphabetMap.size(); t++) {
+            starts[t + 1] += starts[t];
+        }
+        positions = new int[Y.length];
+        int[] next = starts.clone();
+        for (int j=Y.length-1; j>=0; j--) {
+            positions[next[tokenIds[j]]++] = j;
+        }
+    }
+
+    public int getLength() {return this.length;}
+
+    public int lcsLength(String X) {
+        return lcsLength(BitParallelLCS.toTokens(X));
+    }
+
+    public int lcsLength(int[] X) {
+        int[] thresh = new int[Math.min(X.length, length) + 1];
+        int numOfThresholds = 0;
+        for (int x : X) {
+            Integer id = alphabetMap.get(x);
+            if (id == null) {
+                continue;
+            }
+            for (int p=starts[id]; p<starts[id + 1]; p++) {
+                int j = positions[p];
+                // The first threshold >= j.
+                int low = 0, high = numOfThresholds;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (thresh[mid] < j) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                thresh[low] = j;
+                if (low == numOfThresholds) {
+                    numOfThresholds++;
+                }
+            }
+        }
+        return numOfThresholds;
+    }
+
+    /**
+     * @return The number of match points (i, j) with X[i] == Y[j].
+     */
+    public long matchCount(int[] X) {
+        long count = 0;
+        for (int x : X) {
+            Integer id = alphabetMap.get(x);
+            if (id != null) {
+                count += starts[id + 1] - starts[id];
+            }
+        }
+        return count;
+    }
+
+    public static int lcsLength(String X, String Y) {
+        return lcsLength(BitParallelLCS.toTokens(X), BitParallelLCS.toTokens(Y));
+    }
+
+    /**
+     * @return The length of the LCS of X and Y, computed by SparseLCS if there are few matches, otherwise
+     *         by BitParallelLCS.
+     */
+    public static int lcsLength(int[] X, int[] Y) {
+        SparseLCS sparseLCS = new SparseLCS(Y);
+        if (isSparse(sparseLCS.matchCount(X), X.length, Y.length, sparseLCS.alphabetMap.size())) {
+            return sparseLCS.lcsLength(X);
+        }
+        // Masks over the shorter sequence.
+        return X.length <= Y.length ? new BitParallelLCS(X).lcsLength(Y) : new BitParallelLCS(Y).lcsLength(X);
+    }
+
+    /**
+     * @param numOfTokens   - The number of distinct tokens, which BitParallelLCS keeps a mask of each.
+     * @return True if visiting r matches with a binary search each is expected to be faster than
+     *         building the masks and advancing one bit-vector of min(m,n) bits per token of the longer
+     *         sequence.
+     */
+    static boolean isSparse(long r, int m, int n, int numOfTokens) {
+        long numOfWords = (Math.min(m, n) + 63) / 64;
+        long denseWork = (Math.max(m, n) + (long) numOfTokens) * numOfWords;
+        long sparseWork = (r + m) * (64 - Long.numberOfLeadingZeros(Math.min(m, n) + 1L));
+        return sparseWork < denseWork;
+    }
+}
@@ -3,6 +3,19 @@ package dynamicprograming.LongestCommonSubsequence;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 public class UnitTest {
 
     @Test
@@ -16,4 +29,285 @@ public class UnitTest {
 
         Assert.assertEquals(6, lcs.getLCSLength());
     }
+
+    @Test
+    public void testBitParallel() {
+        Random rd = new Random(18);
+        // Lengths around word boundaries, and alphabets of DNA, letters and wide characters.
+        int[] lengths = {0, 1, 63, 64, 65, 127, 128, 300};
+        String[] alphabets = {"ACGT", "abcdefghijklmnopqrstuvwxyz", "\u03b1\u03b2\u03b3\u4e00\u4e01a"};
+        for (String alphabet : alphabets) {
+            for (int m : lengths) {
+                for (int n : lengths) {
+                    String X = randomString(rd, m, alphabet), Y = randomString(rd, n, alphabet);
+                    LCS lcs = new LCS(X, Y);
+                    lcs.computeLCS();
+                    BitParallelLCS bitParallelLCS = new BitParallelLCS(X);
+                    Assert.assertEquals(lcs.getLCSLength(), bitParallelLCS.lcsLength(Y));
+                }
+            }
+        }
+        Assert.assertEquals(6, new BitParallelLCS("CGATAATTGAGA").lcsLength("GTTCCTAATA"));
+    }
+
+    @Test
+    public void testBitParallelTokens() {
+        Random rd = new Random(19);
+        int[] X = new int[500];
+        for (int i=0; i<X.length; i++) {
+            X[i] = rd.nextInt(50) * 1_000_003 - 20_000_000;
+        }
+        BitParallelLCS bitParallelLCS = new BitParallelLCS(X);
+        // One workspace reused for every comparison.
+        long[] workspace = new long[bitParallelLCS.getWorkspaceSize()];
+        for (int test=0; test<20; test++) {
+            int[] Y = new int[rd.nextInt(700)];
+            StringBuilder x = new StringBuilder(), y = new StringBuilder();
+            for (int j=0; j<Y.length; j++) {
+                Y[j] = rd.nextInt(60) * 1_000_003 - 20_000_000;
+            }
+            // The same sequences as strings, with each token mapped to a character.
+            for (int token : X) {
+                x.append((char) ((token + 20_000_000) / 1_000_003 + 'A'));
+            }
+            for (int token : Y) {
+                y.append((char) ((token + 20_000_000) / 1_000_003 + 'A'));
+            }
+            LCS lcs = new LCS(x.toString(), y.toString());
+            lcs.computeLCS();
+            Assert.assertEquals(lcs.getLCSLength(), bitParallelLCS.lcsLength(Y, workspace));
+        }
+    }
+
+    @Test
+    public void testHirschberg() {
+        Random rd = new Random(19);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] lengths = {0, 1, 2, 37, 200, 1_000};
+            for (String alphabet : new String[] {"ACGT", "abcdefghijklmnopqrstuvwxyz"}) {
+                for (int m : lengths) {
+                    for (int n : lengths) {
+                        String X = randomString(rd, m, alphabet), Y = randomString(rd, n, alphabet);
+                        LCS lcs = new LCS(X, Y);
+                        lcs.computeLCS();
+                        // A cutoff of 1 recurses down to single rows, larger cutoffs mix in full matrices.
+                        for (int cutoff : new int[] {1, 64, HirschbergLCS.DEFAULT_CUTOFF}) {
+                            HirschbergLCS hirschbergLCS = new HirschbergLCS(X, Y);
+                            hirschbergLCS.computeLCS(pool, cutoff);
+                            Assert.assertEquals(lcs.getLCSLength(), hirschbergLCS.getLCSLength());
+                            assertCommonSubsequence(X, Y, hirschbergLCS);
+                        }
+                    }
+                }
+            }
+            HirschbergLCS hirschbergLCS = new HirschbergLCS("CGATAATTGAGA", "GTTCCTAATA");
+            hirschbergLCS.computeLCS();
+            Assert.assertEquals(6, hirschbergLCS.getLCS().length());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testHirschbergLargeAlphabet() {
+        Random rd = new Random(119);
+        // Every token of Y is distinct, with values spread over all ints, and X is a shuffle of half of
+        // them mixed with tokens not in Y.
+        int n = 20_000;
+        int[] Y = new int[n];
+        for (int j=0; j<n; j++) {
+            Y[j] = j * 104_729 + Integer.MIN_VALUE;
+        }
+        int[] X = new int[n];
+        for (int i=0; i<n; i++) {
+            X[i] = rd.nextBoolean() ? Y[rd.nextInt(n)] : rd.nextInt();
+        }
+        HirschbergLCS hirschbergLCS = new HirschbergLCS(X, Y);
+        hirschbergLCS.computeLCS();
+        Assert.assertEquals(SparseLCS.lcsLength(X, Y), hirschbergLCS.getLCSLength());
+        int[] xIndices = hirschbergLCS.getXIndices(), yIndices = hirschbergLCS.getYIndices();
+        for (int t=0; t<xIndices.length; t++) {
+            if (t > 0) {
+                Assert.assertTrue(xIndices[t] > xIndices[t-1]);
+                Assert.assertTrue(yIndices[t] > yIndices[t-1]);
+            }
+            Assert.assertEquals(X[xIndices[t]], Y[yIndices[t]]);
+        }
+    }
+
+    @Test
+    public void testWavefront() throws InterruptedException {
+        Random rd = new Random(20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            int[] lengths = {0, 1, 7, 64, 333};
+            for (int blockSize : new int[] {1, 5, 64, WavefrontLCS.DEFAULT_BLOCK_SIZE}) {
+                WavefrontLCS wavefrontLCS = new WavefrontLCS(executor, blockSize);
+                for (int m : lengths) {
+                    for (int n : lengths) {
+                        String X = randomString(rd, m, "ACGT"), Y = randomString(rd, n, "ACGT");
+                        LCS lcs = new LCS(X, Y);
+                        lcs.computeLCS();
+                        Assert.assertEquals(lcs.getLCSLength(), wavefrontLCS.lcsLength(X, Y));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSparse() {
+        Random rd = new Random(21);
+        int[] lengths = {0, 1, 10, 200, 1_000};
+        // From dense (4 tokens) to sparse (2000 tokens) matches.
+        for (int alphabetSize : new int[] {4, 100, 2_000}) {
+            for (int m : lengths) {
+                for (int n : lengths) {
+                    int[] X = randomTokens(rd, m, alphabetSize), Y = randomTokens(rd, n, alphabetSize);
+                    LCS lcs = new LCS(tokensToString(X), tokensToString(Y));
+                    lcs.computeLCS();
+                    SparseLCS sparseLCS = new SparseLCS(Y);
+                    Assert.assertEquals(lcs.getLCSLength(), sparseLCS.lcsLength(X));
+                    Assert.assertEquals(lcs.getLCSLength(), SparseLCS.lcsLength(X, Y));
+
+                    long matches = 0;
+                    for (int x : X) {
+                        for (int y : Y) {
+                            if (x == y) matches++;
+                        }
+                    }
+                    Assert.assertEquals(matches, sparseLCS.matchCount(X));
+                }
+            }
+        }
+        Assert.assertEquals(6, SparseLCS.lcsLength("CGATAATTGAGA", "GTTCCTAATA"));
+        // Few matches choose the sparse engine, many matches the dense one.
+        Assert.assertTrue(SparseLCS.isSparse(10_000, 100_000, 100_000, 50_000));
+        Assert.assertFalse(SparseLCS.isSparse(2_500_000_000L, 100_000, 100_000, 4));
+    }
+
+    static int[] randomTokens(Random rd, int length, int alphabetSize) {
+        int[] tokens = new int[length];
+        for (int i=0; i<length; i++) {
+            tokens[i] = rd.nextInt(alphabetSize) * 7919 - 1_000;
+        }
+        return tokens;
+    }
+
+    /**
+     * Map tokens made by randomTokens to distinct characters.
+     */
+    static String tokensToString(int[] tokens) {
+        StringBuilder sb = new StringBuilder(tokens.length);
+        for (int token : tokens) {
+            sb.append((char) ((token + 1_000) / 7919 + 'A'));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testSearch() throws IOException, InterruptedException {
+        Random rd = new Random(23);
+        String query = randomString(rd, 150, "ACGT");
+        List<String> corpus = new ArrayList<>();
+        for (int c=0; c<2_000; c++) {
+            corpus.add(randomString(rd, rd.nextInt(200), "ACGT"));
+        }
+        // Expected: sort every candidate by LCS length, longest first, then by position.
+        List<Integer> order = new ArrayList<>();
+        int[] lengths = new int[corpus.size()];
+        for (int c=0; c<corpus.size(); c++) {
+            LCS lcs = new LCS(query, corpus.get(c));
+            lcs.computeLCS();
+            lengths[c] = lcs.getLCSLength();
+            order.add(c);
+        }
+        order.sort((a, b) -> lengths[a] != lengths[b] ? lengths[b] - lengths[a] : a - b);
+
+        Path file = Files.createTempFile("candidates", ".txt");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Files.write(file, corpus);
+            for (int numOfWorkers : new int[] {1, 3}) {
+                for (int batchSize : new int[] {1, 7, LCSSearch.DEFAULT_BATCH_SIZE}) {
+                    LCSSearch search = new LCSSearch(query, 25, executor, numOfWorkers);
+                    search.setBatchSize(batchSize);
+                    for (List<LCSSearch.Result> results : Arrays.asList(search.search(corpus.iterator()), search.search(file))) {
+                        Assert.assertEquals(25, results.size());
+                        Assert.assertEquals(corpus.size(), search.getNumOfCandidates());
+                        for (int r=0; r<results.size(); r++) {
+                            int c = order.get(r);
+                            Assert.assertEquals(c, results.get(r).getIndex());
+                            Assert.assertEquals(corpus.get(c), results.get(r).getCandidate());
+                            Assert.assertEquals(lengths[c], results.get(r).getLCSLength());
+                        }
+                    }
+                }
+            }
+            // Fewer candidates than topN.
+            LCSSearch search = new LCSSearch(query, 25, executor, 2);
+            Assert.assertEquals(3, search.search(corpus.subList(0, 3).iterator()).size());
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSearchInterrupted() throws InterruptedException {
+        String query = randomString(new Random(23), 150, "ACGT");
+        Iterator<String> endless = new Iterator<String>() {
+            public boolean hasNext() {return true;}
+            public String next() {return query;}
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        boolean[] interrupted = new boolean[1];
+        Thread searcher = new Thread(() -> {
+            try {
+                new LCSSearch(query, 25, executor, 2).search(endless);
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+        try {
+            searcher.start();
+            Thread.sleep(100);
+            searcher.interrupt();
+            searcher.join(10_000);
+            Assert.assertTrue(interrupted[0]);
+            // The workers were cancelled, so they stop reading the endless stream.
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Check the matches are increasing in both strings, and the matched characters are equal.
+     */
+    static void assertCommonSubsequence(String X, String Y, HirschbergLCS hirschbergLCS) {
+        int[] xIndices = hirschbergLCS.getXIndices(), yIndices = hirschbergLCS.getYIndices();
+        String subsequence = hirschbergLCS.getLCS();
+        Assert.assertEquals(xIndices.length, yIndices.length);
+        for (int t=0; t<xIndices.length; t++) {
+            if (t > 0) {
+                Assert.assertTrue(xIndices[t] > xIndices[t-1]);
+                Assert.assertTrue(yIndices[t] > yIndices[t-1]);
+            }
+            Assert.assertEquals(X.charAt(xIndices[t]), Y.charAt(yIndices[t]));
+            Assert.assertEquals(X.charAt(xIndices[t]), subsequence.charAt(t));
+        }
+    }
+
+    static String randomString(Random rd, int length, String alphabet) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i=0; i<length; i++) {
+            sb.append(alphabet.charAt(rd.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,175 @@
+package dynamicprograming.LongestCommonSubsequence;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the length of the LCS of X[1:m] and Y[1:n] on several threads, by a wavefront over blocks of
+ * the dpMatrix.
+ *
+ * L[i,j] depends only on L[i-1,j-1], L[i-1,j] and L[i,j-1], so all cells of an anti-diagonal are
+ * independent. The dpMatrix is split into blocks of blockSize x blockSize cells, and block (bi, bj) can
+ * be computed as soon as the blocks above it and to its left are done. Each block is computed row by row
+ * from:
+ *      - the row of values along its top edge, left by the block above it.
+ *      - the column of values along its left edge, left by the block to its left.
+ * and in turn leaves its bottom row and right column for the blocks below and right of it. Only these
+ * edges are kept: rowEdges[bj] holds the latest bottom row of block column bj, and colEdges[bi] the latest
+ * right column of block row bi, each with the corner value in position 0. So memory is O(m+n), and a
+ * block's working set (its two edges and the strings' slices) is a few blockSize sized arrays, which stay
+ * in cache.
+ *
+ * Each block has a counter of the blocks it still waits for (0, 1 or 2). A finished block decrements the
+ * counters of the blocks below and right of it, and submits those that reach 0 to the executor. With p
+ * threads, the first and last p-1 anti-diagonals of blocks have fewer than p blocks, so the speedup is
+ * close to p when there are many more than p blocks along each side.
+ */
+public class WavefrontLCS {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 10;
+
+    private final ExecutorService executor;
+    private final int blockSize;
+
+    public WavefrontLCS(ExecutorService executor) {
+        this(executor, DEFAULT_BLOCK_SIZE);
+    }
+
+    public WavefrontLCS(ExecutorService executor, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.executor = executor;
+        this.blockSize = blockSize;
+    }
+
+    public int getBlockSize() {return this.blockSize;}
+
+    public int lcsLength(String X, String Y) throws InterruptedException {
+        return lcsLength(BitParallelLCS.toTokens(X), BitParallelLCS.toTokens(Y));
+    }
+
+    /**
+     * @return The length of the LCS of X and Y. Blocks run on the executor; the calling thread waits.
+     */
+    public int lcsLength(int[] X, int[] Y) throws InterruptedException {
+        if (X.length == 0 || Y.length == 0) {
+            return 0;
+        }
+        Wavefront wavefront = new Wavefront(X, Y);
+        wavefront.submit(0, 0);
+        wavefront.done.await();
+        Throwable failure = wavefront.failure.get();
+        if (failure != null) {
+            throw new IllegalStateException("A block of the wavefront failed", failure);
+        }
+        int[] lastRow = wavefront.rowEdges[wavefront.numOfBlockColumns - 1];
+        return lastRow[lastRow.length - 1];
+    }
+
+    /**
+     * The state of one computation.
+     */
+    private class Wavefront {
+
+        private final int[] X, Y;
+        private final int numOfBlockRows, numOfBlockColumns;
+        private final int[][] rowEdges, colEdges;
+        // The number of neighbouring blocks (above and left) that block bi*numOfBlockColumns+bj waits for.
+        private final AtomicIntegerArray waiting;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Wavefront(int[] X, int[] Y) {
+            this.X = X;
+            this.Y = Y;
+            numOfBlockRows = (X.length + blockSize - 1) / blockSize;
+            numOfBlockColumns = (Y.length + blockSize - 1) / blockSize;
+            rowEdges = new int[numOfBlockColumns][];
+            for (int bj=0; bj<numOfBlockColumns; bj++) {
+                rowEdges[bj] = new int[blockWidth(bj) + 1];
+            }
+            colEdges = new int[numOfBlockRows][];
+            for (int bi=0; bi<numOfBlockRows; bi++) {
+                colEdges[bi] = new int[blockHeight(bi) + 1];
+            }
+            waiting = new AtomicIntegerArray(numOfBlockRows * numOfBlockColumns);
+            for (int bi=0; bi<numOfBlockRows; bi++) {
+                for (int bj=0; bj<numOfBlockColumns; bj++) {
+                    waiting.set(bi * numOfBlockColumns + bj, (bi > 0 ? 1 : 0) + (bj > 0 ? 1 : 0));
+                }
+            }
+        }
+
+        private int blockHeight(int bi) {
+            return Math.min(blockSize, X.length - bi * blockSize);
+        }
+
+        private int blockWidth(int bj) {
+            return Math.min(blockSize, Y.length - bj * blockSize);
+        }
+
+        void submit(int bi, int bj) {
+            executor.execute(() -> run(bi, bj));
+        }
+
+        /**
+         * Compute block (bi, bj), then the blocks it makes ready: the one to the right on this thread,
+         * the one below on the executor.
+         */
+        private void run(int bi, int bj) {
+            try {
+                while (true) {
+                    computeBlock(bi, bj);
+                    if (failure.get() != null) {
+                        return;
+                    }
+                    if (bi == numOfBlockRows - 1 && bj == numOfBlockColumns - 1) {
+                        done.countDown();
+                        return;
+                    }
+                    if (bi + 1 < numOfBlockRows && waiting.decrementAndGet((bi + 1) * numOfBlockColumns + bj) == 0) {
+                        submit(bi + 1, bj);
+                    }
+                    if (bj + 1 < numOfBlockColumns && waiting.decrementAndGet(bi * numOfBlockColumns + bj + 1) == 0) {
+                        bj++;
+                    } else {
+                        return;
+                    }
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+                done.countDown();
+            }
+        }
+
+        /**
+         * Compute the cells of block (bi, bj), updating rowEdges[bj] and colEdges[bi] in place.
+         */
+        private void computeBlock(int bi, int bj) {
+            int xStart = bi * blockSize, yStart = bj * blockSize;
+            int height = blockHeight(bi), width = blockWidth(bj);
+            // row starts as the top edge and becomes each row of the block in turn.
+            int[] row = rowEdges[bj];
+            int[] column = colEdges[bi];
+            // The corner of the right column is the last value of the top edge.
+            int topRight = row[width];
+            for (int i=1; i<=height; i++) {
+                int x = X[xStart + i - 1];
+                int diagonal = row[0];
+                int left = column[i];
+                row[0] = left;
+                for (int j=1; j<=width; j++) {
+                    int above = row[j];
+                    left = x == Y[yStart + j - 1] ? diagonal + 1 : Math.max(left, above);
+                    row[j] = left;
+                    diagonal = above;
+                }
+                column[i] = left;
+            }
+            column[0] = topRight;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dynamicprograming.PrettyPrint;
+
+/**
+ * The cost of a line that fits, as a function of its slack (lineLength - length of the line).
+ *
+ * PrettyPrint.computeConvexOPT requires the cost to be convex in the slack, e.g. power(p) for p >= 1.
+ */
+public interface Penalty {
+
+    double cost(long slack);
+
+    /**
+     * @return The penalty slack^exponent. power(1) is the slack itself, the default of PrettyPrint.
+     */
+    static Penalty power(double exponent) {
+        return slack -> Math.pow(slack, exponent);
+    }
+}
@@ -29,51 +29,78 @@ import java.util.List;
  * to partition at index j that minimizes:
  * cost(text[j:n]) + OPT(text[1:j-1]) on k-1 lines.
  * where OPT(i) is the optimal cost of the way to partition the words text[1:i].
+ * <p>
+ * The slack of text[i:j] is computed when needed from prefix sums of the word lengths, rather than stored
+ * for all O(n^2) partitions:
+ * length(text[i:j]) = (prefixLengths[j+1] - prefixLengths[i]) + (j - i).
+ * Since every word after the first adds at least a space, a line holds at most lineLength+1 words. So
+ * computeOPT only considers the last line starting at j = i-1, i-2, ... while it fits, which takes O(n)
+ * memory and O(n*lineLength) time.
+ * <p>
+ * The cost of a line that fits is a Penalty of its slack, by default the slack itself. When the penalty is
+ * convex in the slack, e.g. the slack squared, computeConvexOPT finds the same partition in O(n log n)
+ * time, independently of lineLength. Let w(j,i) be the cost of the line text[j:i-1]. Its slack is
+ * lineLength + 1 - (S[i] - S[j]) where S[i] = prefixLengths[i] + i is increasing, so for j < k < i < i':
+ * w(j,i) + w(k,i') <= w(j,i') + w(k,i)
+ * (infeasible lines cost infinity, which keeps the penalty convex). Hence once a later line start k gives
+ * a lower cost than an earlier start j for the end i, it does so for every end after i. So computeConvexOPT
+ * keeps a deque of the line starts that may still be optimal, each with the range of ends it is best for,
+ * and finds where a new start takes over from the last one with a binary search.
  */
 public class PrettyPrint {
 
     final double INF = Double.POSITIVE_INFINITY;
 
-    // Store the slack of line text[i:j] inclusive.
-    double[][] slack;
+    // prefixLengths[i] is the total length of the words text[0:i), excluding spaces.
+    long[] prefixLengths;
     double dpMatrix[];
     int dpMatrixIndices[];
     int lineLength;
     String[] text;
+    Penalty penalty;
 
     public PrettyPrint(int lineLength, String[] text) {
+        this(lineLength, text, Penalty.power(1));
+    }
+
+    public PrettyPrint(int lineLength, String[] text, Penalty penalty) {
         this.lineLength = lineLength;
         this.text = text;
+        this.penalty = penalty;
 
-        slack = new double[text.length][text.length];
+        prefixLengths = new long[text.length+1];
         dpMatrix = new double[text.length+1];
         dpMatrixIndices = new int[text.length+1];
         dpMatrix[0] = 0;
         dpMatrixIndices[0] = 0;
     }
 
+    /**
+     * Compute the prefix sums of the word lengths, from which the slack of any line is computed.
+     */
     public void computeSlackValues() {
-        // Compute cost of each partition
         for (int i = 0; i < text.length; i++) {
-            double lengthOfPartition = 0;
-            int j = i;
-            while (j < text.length) {
-                // This difference is the number of spaces needed by the partition.
-                lengthOfPartition += text[j].length();
-                slack[i][j] = lengthOfPartition;
-                // Add number of spaces this partition will need
-                slack[i][j] += j - i;
-
-                // If the slack exceeds the line limit, set to infinity as it is infeasible.
-                // Otherwise store slack.
-                if (lineLength < slack[i][j]) {
-                    slack[i][j] = INF;
-                } else {
-                    slack[i][j] = Math.pow(lineLength - slack[i][j], 1);
-                }
-                j++;
-            }
+            prefixLengths[i+1] = prefixLengths[i] + text[i].length();
+        }
+    }
+
+    /**
+     * @return The length of the line text[i:j] inclusive: its words, plus one space between each pair.
+     */
+    long getLength(int i, int j) {
+        return prefixLengths[j+1] - prefixLengths[i] + (j - i);
+    }
+
+    /**
+     * @return The penalty of the slack of the line text[i:j] inclusive, or infinity if it is longer than
+     *         lineLength.
+     */
+    double getCost(int i, int j) {
+        long lengthOfPartition = getLength(i, j);
+        if (lineLength < lengthOfPartition) {
+            return INF;
         }
+        return penalty.cost(lineLength - lengthOfPartition);
     }
 
     /**
@@ -84,10 +111,16 @@ public class PrettyPrint {
         for(int i=1; i<=text.length; i++) {
             double min = INF;
             int minIndex = -1;
-            for(int j=0; j<i; j++) {
-                if(slack[j][i-1] + dpMatrix[j] < min) {
+            // Only lines text[j:i-1] that fit are feasible, and they get longer as j decreases.
+            // Ties go to the smallest j, hence <= while j decreases.
+            for(int j=i-1; j>=0; j--) {
+                if (lineLength < getLength(j, i-1)) {
+                    break;
+                }
+                double cost = getCost(j, i-1) + dpMatrix[j];
+                if (cost <= min && cost != INF) {
                     minIndex = j;
-                    min = slack[j][i-1] + dpMatrix[j];
+                    min = cost;
                 }
             }
             dpMatrix[i] = min;
@@ -95,6 +128,63 @@ public class PrettyPrint {
         }
     }
 
+    /**
+     * Compute values of dpMatrix, as computeOPT does, for a penalty that is convex in the slack.
+     */
+    public void computeConvexOPT() {
+        int n = text.length;
+        // The line starts that may still be optimal, candidates[front:back) in increasing order.
+        // candidates[c] is the best of them for the ends in [starts[c], starts[c+1]).
+        int[] candidates = new int[n];
+        int[] starts = new int[n];
+        int front = 0, back = 0;
+        for (int i=1; i<=n; i++) {
+            // dpMatrix[i-1] is known, so a line may now start at i-1.
+            int j = i-1;
+            // Drop the candidates that j beats over all of their range.
+            while (back > front && beats(j, candidates[back-1], Math.max(starts[back-1], i))) {
+                back--;
+            }
+            if (back == front) {
+                candidates[back] = j;
+                starts[back++] = i;
+            } else if (beats(j, candidates[back-1], n)) {
+                // The first end at which j beats the last candidate.
+                int low = Math.max(starts[back-1], i) + 1, high = n;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (beats(j, candidates[back-1], mid)) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
+                    }
+                }
+                candidates[back] = j;
+                starts[back++] = low;
+            }
+            while (back - front > 1 && starts[front+1] <= i) {
+                front++;
+            }
+            dpMatrix[i] = getCost(candidates[front], i-1) + dpMatrix[candidates[front]];
+            // As in computeOPT, there is no index if no partition is feasible.
+            dpMatrixIndices[i] = dpMatrix[i] == INF ? -1 : candidates[front];
+        }
+    }
+
+    /**
+     * @return True if the last line of text[0:i) costs less starting at k than at j < k. Ties go to j,
+     *         except when both are infeasible, so that once k beats j it does so for all later i.
+     */
+    private boolean beats(int k, int j, int i) {
+        double costOfJ = getCost(j, i-1) + dpMatrix[j];
+        return costOfJ == INF || getCost(k, i-1) + dpMatrix[k] < costOfJ;
+    }
+
+    /**
+     * @return The cost of the optimal partition of the whole text, once computed.
+     */
+    public double getOptimalCost() {return this.dpMatrix[text.length];}
+
     /**
      * Backtrack through dpMatrix to compute formatting of text.
      */
@@ -112,8 +202,10 @@ public class PrettyPrint {
             // Break from loop once start of string is reached.
             if (startIndex == 0)
                 break;
+            // The previous line ends before startIndex, and starts where the optimal partition of
+            // text[0:startIndex) puts its last line.
             endIndex = startIndex - 1;
-            startIndex = dpMatrixIndices[endIndex];
+            startIndex = dpMatrixIndices[startIndex];
 
         }
         // Reverse text to ensure order is correct.
@@ -0,0 +1,116 @@
+package dynamicprograming.PrettyPrint;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class UnitTest {
+
+    @Test
+    public void test1() {
+        String[] text = {"The", "quick", "brown", "fox", "jumps", "over", "the", "lazy", "dog."};
+        PrettyPrint pp = new PrettyPrint(15, text);
+        pp.computeSlackValues();
+        pp.computeOPT();
+        Assert.assertEquals("\nThe quick brown\nfox jumps over\nthe lazy dog.", pp.getParagraph());
+        Assert.assertEquals(0 + 1 + 2, pp.dpMatrix[text.length], 0);
+    }
+
+    @Test
+    public void testMatchesAllPartitions() {
+        Random rd = new Random(24);
+        for (int test=0; test<200; test++) {
+            int lineLength = 5 + rd.nextInt(30);
+            // Include empty words, and occasionally a word longer than a line.
+            String[] text = randomWords(rd, rd.nextInt(150), test % 10 == 0 ? lineLength + 1 : 8);
+            PrettyPrint pp = new PrettyPrint(lineLength, text);
+            pp.computeSlackValues();
+            pp.computeOPT();
+
+            double[] expected = new double[text.length+1];
+            int[] expectedIndices = new int[text.length+1];
+            allPartitionsOPT(lineLength, text, expected, expectedIndices);
+            Assert.assertArrayEquals(expected, pp.dpMatrix, 0);
+            Assert.assertArrayEquals(expectedIndices, pp.dpMatrixIndices);
+        }
+    }
+
+    @Test
+    public void testSquaredPenalty() {
+        String[] text = {"aaa", "bb", "cc", "ddddd"};
+        // Linear: every split into two lines costs 9 + 9 - 14 = 4, e.g. "aaa bb cc" and "ddddd".
+        PrettyPrint linear = new PrettyPrint(9, text);
+        linear.computeSlackValues();
+        linear.computeOPT();
+        Assert.assertEquals(0 + 4, linear.dpMatrix[text.length], 0);
+
+        // Squared: "aaa bb" and "cc ddddd" cost 9 + 1, rather than 0 + 16 for "aaa bb cc" and "ddddd".
+        PrettyPrint squared = new PrettyPrint(9, text, Penalty.power(2));
+        squared.computeSlackValues();
+        squared.computeConvexOPT();
+        Assert.assertEquals(9 + 1, squared.dpMatrix[text.length], 0);
+        Assert.assertEquals("\naaa bb\ncc ddddd", squared.getParagraph());
+    }
+
+    @Test
+    public void testConvexMatchesScan() {
+        Random rd = new Random(25);
+        double[] exponents = {1, 2, 3, 1.5};
+        for (int test=0; test<400; test++) {
+            int lineLength = 1 + rd.nextInt(30);
+            // Short words give many ties, and occasionally a word is longer than a line.
+            String[] text = randomWords(rd, rd.nextInt(300), test % 10 == 0 ? lineLength + 1 : 1 + rd.nextInt(8));
+            Penalty penalty = Penalty.power(exponents[test % exponents.length]);
+
+            PrettyPrint scan = new PrettyPrint(lineLength, text, penalty);
+            scan.computeSlackValues();
+            scan.computeOPT();
+            PrettyPrint convex = new PrettyPrint(lineLength, text, penalty);
+            convex.computeSlackValues();
+            convex.computeConvexOPT();
+            Assert.assertArrayEquals(scan.dpMatrix, convex.dpMatrix, 0);
+            Assert.assertArrayEquals(scan.dpMatrixIndices, convex.dpMatrixIndices);
+        }
+    }
+
+    /**
+     * The O(n^2) solver over every partition text[j:i-1], as originally written with a slack matrix.
+     */
+    static void allPartitionsOPT(int lineLength, String[] text, double[] dpMatrix, int[] dpMatrixIndices) {
+        double[][] slack = new double[text.length][text.length];
+        for (int i=0; i<text.length; i++) {
+            double lengthOfPartition = 0;
+            for (int j=i; j<text.length; j++) {
+                lengthOfPartition += text[j].length();
+                slack[i][j] = lengthOfPartition + j - i;
+                slack[i][j] = lineLength < slack[i][j] ? Double.POSITIVE_INFINITY : lineLength - slack[i][j];
+            }
+        }
+        for (int i=1; i<=text.length; i++) {
+            double min = Double.POSITIVE_INFINITY;
+            int minIndex = -1;
+            for (int j=0; j<i; j++) {
+                if (slack[j][i-1] + dpMatrix[j] < min) {
+                    minIndex = j;
+                    min = slack[j][i-1] + dpMatrix[j];
+                }
+            }
+            dpMatrix[i] = min;
+            dpMatrixIndices[i] = minIndex;
+        }
+    }
+
+    static String[] randomWords(Random rd, int numOfWords, int maxLength) {
+        String[] words = new String[numOfWords];
+        for (int i=0; i<numOfWords; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = rd.nextInt(maxLength + 1);
+            for (int c=0; c<length; c++) {
+                sb.append((char) ('a' + rd.nextInt(26)));
+            }
+            words[i] = sb.toString();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,422 @@
+package sorting;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Index sorts (argsorts): for keys[leftIndex:rightIndex), return the indices of the keys in sorted order,
+ * i.e. a permutation p of [leftIndex, rightIndex) with keys[p[0]] <= keys[p[1]] <= ...
+ *
+ * Sorting Integer[] indices with a comparator boxes every index and follows a pointer per comparison.
+ * Instead the keys are copied into a long[] and sorted together with an int[] of indices, swapping or
+ * moving both arrays in step. Each key is mapped to a long whose signed order is the order of the
+ * doubles, as in RadixSort.key, so keys are compared as longs and the order is total: -0.0 comes before
+ * 0.0, and NaN comes last.
+ *
+ * Three variants:
+ *      argSort         - unstable: introsort, as Sort.quickSort. O(nlogn), with no scratch buffers.
+ *      stableArgSort   - stable (equal keys keep the order of their indices): bottom-up merge sort on
+ *                        insertion sorted blocks, ping-ponging between the arrays and a buffer of each.
+ *      parallelArgSort - stable: a fork-join merge sort with parallel merges, as ParallelSort, with
+ *                        stableArgSort on the leaves.
+ */
+public class ArgSort {
+
+    // Ranges with at most this many values are finished with insertion sort.
+    static final int INSERTION_SORT_THRESHOLD = Sort.INSERTION_SORT_THRESHOLD;
+    // The stable sort merges blocks of this many values, each sorted by insertion sort.
+    static final int BLOCK_SIZE = 32;
+
+    private ArgSort() {
+
+    }
+
+    public static int[] argSort(double[] keys) {
+        return argSort(keys, 0, keys.length);
+    }
+
+    /**
+     * @return The indices of keys[leftIndex:rightIndex) in sorted order of their keys. Equal keys may be
+     *         in any order.
+     */
+    public static int[] argSort(double[] keys, int leftIndex, int rightIndex) {
+        int length = rightIndex - leftIndex;
+        long[] sortKeys = new long[length];
+        int[] indices = new int[length];
+        copyKeys(keys, leftIndex, rightIndex, sortKeys, indices);
+        introSort(sortKeys, indices, 0, length, 2 * (31 - Integer.numberOfLeadingZeros(Math.max(length, 1))));
+        return indices;
+    }
+
+    public static int[] stableArgSort(double[] keys) {
+        return stableArgSort(keys, 0, keys.length);
+    }
+
+    /**
+     * @return The indices of keys[leftIndex:rightIndex) in sorted order of their keys. Equal keys are in
+     *         increasing order of index.
+     */
+    public static int[] stableArgSort(double[] keys, int leftIndex, int rightIndex) {
+        int length = rightIndex - leftIndex;
+        long[] sortKeys = new long[length];
+        int[] indices = new int[length];
+        copyKeys(keys, leftIndex, rightIndex, sortKeys, indices);
+        if (length > BLOCK_SIZE) {
+            stableSort(sortKeys, indices, new long[length], new int[length], 0, length);
+        } else {
+            insertionSort(sortKeys, indices, 0, length);
+        }
+        return indices;
+    }
+
+    public static int[] parallelArgSort(double[] keys, ForkJoinPool pool) {
+        return parallelArgSort(keys, 0, keys.length, pool, ParallelSort.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * As stableArgSort, run on pool.
+     * @param threshold - Ranges with at most this many values are sorted or merged sequentially.
+     */
+    public static int[] parallelArgSort(double[] keys, int leftIndex, int rightIndex, ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        int length = rightIndex - leftIndex;
+        if (length <= threshold) {
+            return stableArgSort(keys, leftIndex, rightIndex);
+        }
+        long[] sortKeys = new long[length];
+        int[] indices = new int[length];
+        copyKeys(keys, leftIndex, rightIndex, sortKeys, indices);
+        pool.invoke(new SortTask(sortKeys, indices, new long[length], new int[length], 0, length, false, threshold));
+        return indices;
+    }
+
+    /**
+     * @return A key whose signed order is the order of the doubles. All NaN values have the same key.
+     */
+    static long sortKey(double value) {
+        return RadixSort.key(value != value ? Double.NaN : value) ^ Long.MIN_VALUE;
+    }
+
+    private static void copyKeys(double[] keys, int leftIndex, int rightIndex, long[] sortKeys, int[] indices) {
+        for (int i=leftIndex; i<rightIndex; i++) {
+            sortKeys[i - leftIndex] = sortKey(keys[i]);
+            indices[i - leftIndex] = i;
+        }
+    }
+
+    private static void introSort(long[] keys, int[] indices, int leftIndex, int rightIndex, int depthLimit) {
+        while (rightIndex - leftIndex > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(keys, indices, leftIndex, rightIndex);
+                return;
+            }
+            depthLimit--;
+            int pivot = partition(keys, indices, leftIndex, rightIndex, ninther(keys, leftIndex, rightIndex));
+
+            // Recurse on the smaller side and loop on the larger, so the stack has O(logn) frames.
+            if (pivot - leftIndex < rightIndex - pivot) {
+                introSort(keys, indices, leftIndex, pivot, depthLimit);
+                leftIndex = pivot + 1;
+            } else {
+                introSort(keys, indices, pivot + 1, rightIndex, depthLimit);
+                rightIndex = pivot;
+            }
+        }
+        insertionSort(keys, indices, leftIndex, rightIndex);
+    }
+
+    /**
+     * As PivotStrategy.NINTHER.
+     */
+    private static int ninther(long[] keys, int leftIndex, int rightIndex) {
+        int midIndex = (leftIndex + rightIndex) >>> 1;
+        int lastIndex = rightIndex - 1;
+        int length = rightIndex - leftIndex;
+        if (length < PivotStrategy.NINTHER_THRESHOLD) {
+            return medianOfThree(keys, leftIndex, midIndex, lastIndex);
+        }
+        int step = length / 8;
+        return medianOfThree(keys,
+                medianOfThree(keys, leftIndex, leftIndex + step, leftIndex + 2 * step),
+                medianOfThree(keys, midIndex - step, midIndex, midIndex + step),
+                medianOfThree(keys, lastIndex - 2 * step, lastIndex - step, lastIndex));
+    }
+
+    private static int medianOfThree(long[] keys, int i, int j, int k) {
+        if (keys[i] < keys[j]) {
+            if (keys[j] < keys[k]) return j;
+            return keys[i] < keys[k] ? k : i;
+        } else {
+            if (keys[k] < keys[j]) return j;
+            return keys[k] < keys[i] ? k : i;
+        }
+    }
+
+    /**
+     * As Sort.partition, moving indices with their keys.
+     */
+    private static int partition(long[] keys, int[] indices, int leftIndex, int rightIndex, int pivotIndex) {
+        swap(keys, indices, leftIndex, pivotIndex);
+        long pivotKey = keys[leftIndex];
+        int lastIndex = rightIndex - 1;
+        int i = leftIndex, j = rightIndex;
+        while (true) {
+            while (keys[++i] < pivotKey) {
+                if (i == lastIndex) break;
+            }
+            while (pivotKey < keys[--j]) {
+                if (j == leftIndex) break;
+            }
+            if (i >= j) break;
+            swap(keys, indices, i, j);
+        }
+        swap(keys, indices, leftIndex, j);
+        return j;
+    }
+
+    /**
+     * Stable, since a value only moves past values with greater keys.
+     */
+    private static void insertionSort(long[] keys, int[] indices, int leftIndex, int rightIndex) {
+        for (int i=leftIndex+1; i<rightIndex; i++) {
+            long key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+            while (j >= leftIndex && keys[j] > key) {
+                keys[j+1] = keys[j];
+                indices[j+1] = indices[j];
+                j--;
+            }
+            keys[j+1] = key;
+            indices[j+1] = index;
+        }
+    }
+
+    private static void heapSort(long[] keys, int[] indices, int leftIndex, int rightIndex) {
+        int length = rightIndex - leftIndex;
+        for (int i=length/2 - 1; i>=0; i--) {
+            siftDown(keys, indices, leftIndex, i, length);
+        }
+        for (int end=length-1; end>0; end--) {
+            swap(keys, indices, leftIndex, leftIndex + end);
+            siftDown(keys, indices, leftIndex, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] keys, int[] indices, int offset, int i, int length) {
+        long key = keys[offset + i];
+        int index = indices[offset + i];
+        while (2*i + 1 < length) {
+            int child = 2*i + 1;
+            if (child + 1 < length && keys[offset + child + 1] > keys[offset + child]) {
+                child++;
+            }
+            if (keys[offset + child] <= key) {
+                break;
+            }
+            keys[offset + i] = keys[offset + child];
+            indices[offset + i] = indices[offset + child];
+            i = child;
+        }
+        keys[offset + i] = key;
+        indices[offset + i] = index;
+    }
+
+    private static void swap(long[] keys, int[] indices, int i, int j) {
+        long tempKey = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tempKey;
+        int tempIndex = indices[i];
+        indices[i] = indices[j];
+        indices[j] = tempIndex;
+    }
+
+    /**
+     * Stable bottom-up merge sort of keys[leftIndex:rightIndex) and its indices, using the same range of
+     * keyBuffer and indexBuffer as scratch space. The result is left in keys and indices.
+     */
+    private static void stableSort(long[] keys, int[] indices, long[] keyBuffer, int[] indexBuffer, int leftIndex, int rightIndex) {
+        for (int i=leftIndex; i<rightIndex; i+=BLOCK_SIZE) {
+            insertionSort(keys, indices, i, Math.min(i + BLOCK_SIZE, rightIndex));
+        }
+        long[] sourceKeys = keys, destinationKeys = keyBuffer;
+        int[] sourceIndices = indices, destinationIndices = indexBuffer;
+        for (int width=BLOCK_SIZE; width<rightIndex-leftIndex; width*=2) {
+            for (int i=leftIndex; i<rightIndex; i+=2*width) {
+                int mid = Math.min(i + width, rightIndex), end = Math.min(i + 2*width, rightIndex);
+                merge(sourceKeys, sourceIndices, i, mid, mid, end, destinationKeys, destinationIndices, i);
+            }
+            long[] tempKeys = sourceKeys;
+            sourceKeys = destinationKeys;
+            destinationKeys = tempKeys;
+            int[] tempIndices = sourceIndices;
+            sourceIndices = destinationIndices;
+            destinationIndices = tempIndices;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, leftIndex, keys, leftIndex, rightIndex - leftIndex);
+            System.arraycopy(sourceIndices, leftIndex, indices, leftIndex, rightIndex - leftIndex);
+        }
+    }
+
+    /**
+     * Stable merge of the sorted ranges [left1, right1) and [left2, right2), where the first range comes
+     * first in the input, into the destination arrays starting at destinationIndex.
+     */
+    private static void merge(long[] keys, int[] indices, int left1, int right1, int left2, int right2,
+                              long[] destinationKeys, int[] destinationIndices, int destinationIndex) {
+        int i = left1, j = left2, d = destinationIndex;
+        while (i < right1 && j < right2) {
+            // Take from the second range only when strictly smaller, so equal keys keep their order.
+            if (keys[j] < keys[i]) {
+                destinationKeys[d] = keys[j];
+                destinationIndices[d++] = indices[j++];
+            } else {
+                destinationKeys[d] = keys[i];
+                destinationIndices[d++] = indices[i++];
+            }
+        }
+        System.arraycopy(keys, i, destinationKeys, d, right1 - i);
+        System.arraycopy(indices, i, destinationIndices, d, right1 - i);
+        d += right1 - i;
+        System.arraycopy(keys, j, destinationKeys, d, right2 - j);
+        System.arraycopy(indices, j, destinationIndices, d, right2 - j);
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose key is not less than key.
+     */
+    private static int lowerBound(long[] keys, int leftIndex, int rightIndex, long key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (keys[mid] < key) {
+                leftIndex = mid + 1;
+            } else {
+                rightIndex = mid;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose key is greater than key.
+     */
+    private static int upperBound(long[] keys, int leftIndex, int rightIndex, long key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (key < keys[mid]) {
+                rightIndex = mid;
+            } else {
+                leftIndex = mid + 1;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * Stably sorts [leftIndex:rightIndex) of the keys and indices, leaving the result in the buffers if
+     * intoBuffer, otherwise in the keys and indices.
+     */
+    private static class SortTask extends RecursiveAction {
+
+        private final long[] keys, keyBuffer;
+        private final int[] indices, indexBuffer;
+        private final int leftIndex, rightIndex, threshold;
+        private final boolean intoBuffer;
+
+        SortTask(long[] keys, int[] indices, long[] keyBuffer, int[] indexBuffer,
+                 int leftIndex, int rightIndex, boolean intoBuffer, int threshold) {
+            this.keys = keys;
+            this.indices = indices;
+            this.keyBuffer = keyBuffer;
+            this.indexBuffer = indexBuffer;
+            this.leftIndex = leftIndex;
+            this.rightIndex = rightIndex;
+            this.intoBuffer = intoBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int length = rightIndex - leftIndex;
+            if (length <= threshold) {
+                stableSort(keys, indices, keyBuffer, indexBuffer, leftIndex, rightIndex);
+                if (intoBuffer) {
+                    System.arraycopy(keys, leftIndex, keyBuffer, leftIndex, length);
+                    System.arraycopy(indices, leftIndex, indexBuffer, leftIndex, length);
+                }
+                return;
+            }
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            // Sort the halves into the other arrays, then merge them back into the destination.
+            invokeAll(new SortTask(keys, indices, keyBuffer, indexBuffer, leftIndex, midIndex, !intoBuffer, threshold),
+                    new SortTask(keys, indices, keyBuffer, indexBuffer, midIndex, rightIndex, !intoBuffer, threshold));
+            if (intoBuffer) {
+                new MergeTask(keys, indices, leftIndex, midIndex, midIndex, rightIndex,
+                        keyBuffer, indexBuffer, leftIndex, threshold).compute();
+            } else {
+                new MergeTask(keyBuffer, indexBuffer, leftIndex, midIndex, midIndex, rightIndex,
+                        keys, indices, leftIndex, threshold).compute();
+            }
+        }
+    }
+
+    /**
+     * Stable merge of [left1, right1) and [left2, right2) into the destination starting at destinationIndex,
+     * split around the middle key of the longer range.
+     */
+    private static class MergeTask extends RecursiveAction {
+
+        private final long[] keys, destinationKeys;
+        private final int[] indices, destinationIndices;
+        private final int left1, right1, left2, right2, destinationIndex, threshold;
+
+        MergeTask(long[] keys, int[] indices, int left1, int right1, int left2, int right2,
+                  long[] destinationKeys, int[] destinationIndices, int destinationIndex, int threshold) {
+            this.keys = keys;
+            this.indices = indices;
+            this.left1 = left1;
+            this.right1 = right1;
+            this.left2 = left2;
+            this.right2 = right2;
+            this.destinationKeys = destinationKeys;
+            this.destinationIndices = destinationIndices;
+            this.destinationIndex = destinationIndex;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int length1 = right1 - left1, length2 = right2 - left2;
+            if (length1 + length2 <= threshold) {
+                merge(keys, indices, left1, right1, left2, right2, destinationKeys, destinationIndices, destinationIndex);
+                return;
+            }
+            int mid1, mid2, split;
+            boolean splitInFirst = length1 >= length2;
+            if (splitInFirst) {
+                // Keys of the second range equal to the split key stay after it.
+                mid1 = (left1 + right1) >>> 1;
+                split = mid1;
+                mid2 = lowerBound(keys, left2, right2, keys[split]);
+            } else {
+                // Keys of the first range equal to the split key stay before it.
+                mid2 = (left2 + right2) >>> 1;
+                split = mid2;
+                mid1 = upperBound(keys, left1, right1, keys[split]);
+            }
+            int splitDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+            destinationKeys[splitDestination] = keys[split];
+            destinationIndices[splitDestination] = indices[split];
+
+            int after1 = splitInFirst ? mid1 + 1 : mid1;
+            int after2 = splitInFirst ? mid2 : mid2 + 1;
+            invokeAll(new MergeTask(keys, indices, left1, mid1, left2, mid2,
+                            destinationKeys, destinationIndices, destinationIndex, threshold),
+                    new MergeTask(keys, indices, after1, right1, after2, right2,
+                            destinationKeys, destinationIndices, splitDestination + 1, threshold));
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package sorting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts a binary file of doubles that may be much larger than the heap.
+ *
+ * The file holds one little-endian 8 byte double per value (the format read by MappedBuySellDays).
+ * The sort has two phases:
+ *      1. Run generation: the input is cut into runs of runSize values. Each run is read into memory,
+ *         sorted with Sort.quickSort, and written to its own temporary file. Up to parallelism runs are
+ *         generated at once, so this phase needs about parallelism * runSize * 8 bytes of heap.
+ *      2. Merging: up to fanIn runs are merged at a time into a new, longer run, until a single run is
+ *         left. Each run is read through its own buffer of bufferSize bytes, and the run with the smallest
+ *         next value is found with a binary heap, so a pass over n values costs O(nlog(fanIn)).
+ * With r runs there are ceil(log_fanIn(r)) merge passes over the data.
+ *
+ * Files are read with positional reads into direct buffers that are reused, rather than by mapping
+ * windows of the files: a mapping is only released when its buffer is garbage collected, and the merge
+ * allocates too little to trigger collections, so a long merge would run out of mappings.
+ *
+ * Every temporary file is deleted when the sort ends, whether it succeeds or fails.
+ *
+ * As with Sort, the order of NaN values is undefined.
+ */
+public class ExternalSort {
+
+    public static final int DEFAULT_RUN_SIZE = 1 << 22;
+    public static final int DEFAULT_FAN_IN = 64;
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    // Number of values sorted in memory at a time.
+    private int runSize = DEFAULT_RUN_SIZE;
+    // Number of runs merged at a time.
+    private int fanIn = DEFAULT_FAN_IN;
+    // Number of bytes buffered for each run read, and for the output.
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    // Number of runs generated at a time.
+    private int parallelism = 1;
+    // Directory for temporary run files. If null, the output file's directory is used.
+    private Path tempDirectory;
+
+    public ExternalSort() {
+
+    }
+
+    public void setRunSize(int runSize) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive: " + runSize);
+        }
+        this.runSize = runSize;
+    }
+
+    public void setFanIn(int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2: " + fanIn);
+        }
+        this.fanIn = fanIn;
+    }
+
+    /**
+     * @param bufferSize    - Number of bytes, a positive multiple of 8.
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < Double.BYTES || bufferSize % Double.BYTES != 0) {
+            throw new IllegalArgumentException("Buffer size must be a positive multiple of 8: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public void setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Sort the doubles of input into output. Input and output must be different files.
+     */
+    public void sort(Path input, Path output) throws IOException {
+        Path tempDir = tempDirectory != null ? tempDirectory : output.toAbsolutePath().getParent();
+        // Every temporary file created, deleted at the end however the sort ends.
+        List<Path> tempFiles = new ArrayList<>();
+        try {
+            List<Path> runs = generateRuns(input, tempDir, tempFiles);
+            if (runs.isEmpty()) {
+                Files.write(output, new byte[0]);
+                return;
+            }
+            while (runs.size() > fanIn) {
+                List<Path> mergedRuns = new ArrayList<>();
+                for (int i=0; i<runs.size(); i+=fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path mergedRun = createTempFile(tempDir, tempFiles);
+                    mergedRuns.add(mergedRun);
+                    merge(group, mergedRun);
+                }
+                deleteAll(runs);
+                runs = mergedRuns;
+            }
+            if (runs.size() == 1) {
+                Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, output);
+            }
+        } finally {
+            deleteAll(tempFiles);
+        }
+    }
+
+    /**
+     * Create a temporary file, adding it to tempFiles before anything else can fail.
+     */
+    private static Path createTempFile(Path tempDir, List<Path> tempFiles) throws IOException {
+        Path file = Files.createTempFile(tempDir, "run", ".bin");
+        tempFiles.add(file);
+        return file;
+    }
+
+    /**
+     * Cut input into runs, sort each, and write each to a temporary file, added to tempFiles.
+     * @return The run files, in order.
+     */
+    private List<Path> generateRuns(Path input, Path tempDir, List<Path> tempFiles) throws IOException {
+        long numOfValues;
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % Double.BYTES != 0) {
+                throw new IllegalArgumentException(input + " does not contain a whole number of doubles.");
+            }
+            numOfValues = size / Double.BYTES;
+        }
+        int numOfRuns = (int) ((numOfValues + runSize - 1) / runSize);
+
+        List<Path> runs = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int r=0; r<numOfRuns; r++) {
+                Path run = createTempFile(tempDir, tempFiles);
+                runs.add(run);
+                long firstValue = (long) r * runSize;
+                int length = (int) Math.min(runSize, numOfValues - firstValue);
+                futures.add(executor.submit(() -> {
+                    generateRun(input, firstValue, length, run);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating runs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not generate runs", e.getCause());
+        } finally {
+            // No task may still be writing a run when the runs are deleted.
+            shutdownAndAwait(executor);
+        }
+        return runs;
+    }
+
+    /**
+     * Interrupt the tasks of executor and wait for them to finish, keeping the interrupt status of the
+     * calling thread.
+     */
+    private static void shutdownAndAwait(ExecutorService executor) {
+        executor.shutdownNow();
+        boolean terminated = false, interrupted = false;
+        while (!terminated) {
+            try {
+                terminated = executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void generateRun(Path input, long firstValue, int length, Path run) throws IOException {
+        double[] values = new double[length];
+        try (RunReader reader = new RunReader(input, firstValue * Double.BYTES, (long) length * Double.BYTES, bufferSize)) {
+            reader.read(values);
+        }
+        Sort.quickSort(values, 0, length, PivotStrategy.NINTHER);
+        try (RunWriter writer = new RunWriter(run, bufferSize)) {
+            for (double value : values) {
+                writer.write(value);
+            }
+        }
+    }
+
+    /**
+     * k-way merge of sorted runs into output.
+     */
+    private void merge(List<Path> runs, Path output) throws IOException {
+        int k = runs.size();
+        RunReader[] readers = new RunReader[k];
+        // heap holds the indices of readers with values left, ordered by heads[reader].
+        double[] heads = new double[k];
+        int[] heap = new int[k];
+        int heapSize = 0;
+        try (RunWriter writer = new RunWriter(output, bufferSize)) {
+            for (int r=0; r<k; r++) {
+                readers[r] = new RunReader(runs.get(r), bufferSize);
+                if (readers[r].hasNext()) {
+                    heads[r] = readers[r].next();
+                    heap[heapSize++] = r;
+                }
+            }
+            for (int i=heapSize/2 - 1; i>=0; i--) {
+                siftDown(heap, heapSize, heads, i);
+            }
+
+            while (heapSize > 0) {
+                int r = heap[0];
+                writer.write(heads[r]);
+                if (readers[r].hasNext()) {
+                    heads[r] = readers[r].next();
+                } else {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, heads, 0);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, double[] heads, int i) {
+        int reader = heap[i];
+        double value = heads[reader];
+        while (2*i + 1 < heapSize) {
+            int child = 2*i + 1;
+            if (child + 1 < heapSize && heads[heap[child + 1]] < heads[heap[child]]) {
+                child++;
+            }
+            if (value <= heads[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = reader;
+    }
+
+    /**
+     * Delete the files that still exist, trying all of them before throwing the first failure.
+     */
+    private static void deleteAll(List<Path> files) throws IOException {
+        IOException failure = null;
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Reads the doubles of part of a file through a buffer, refilled with positional reads.
+     */
+    private static class RunReader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        // Byte positions in the file of the next read, and of the end of the part read.
+        private long position;
+        private final long end;
+
+        RunReader(Path run, int bufferSize) throws IOException {
+            this(run, 0, Files.size(run), bufferSize);
+        }
+
+        RunReader(Path file, long position, long length, int bufferSize) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.limit(0);
+            this.position = position;
+            this.end = position + length;
+        }
+
+        boolean hasNext() {
+            return buffer.hasRemaining() || position < end;
+        }
+
+        double next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            return buffer.getDouble();
+        }
+
+        /**
+         * Read the next values.length doubles into values.
+         */
+        void read(double[] values) throws IOException {
+            int read = 0;
+            while (read < values.length) {
+                if (!buffer.hasRemaining()) {
+                    fill();
+                }
+                DoubleBuffer doubles = buffer.asDoubleBuffer();
+                int count = Math.min(values.length - read, doubles.remaining());
+                doubles.get(values, read, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                read += count;
+            }
+        }
+
+        private void fill() throws IOException {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+                position += read;
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes doubles to a file through a direct buffer.
+     */
+    private static class RunWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        RunWriter(Path file, int bufferSize) throws IOException {
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void write(double value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putDouble(value);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
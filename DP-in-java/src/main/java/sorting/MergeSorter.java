@@ -0,0 +1,298 @@
+package sorting;
+
+/**
+ * An adaptive, bottom-up merge sort in the style of TimSort.
+ *
+ * Sort.mergeSort splits the array in half regardless of its contents, and allocates new arrays at every
+ * level of the recursion. Instead this sort:
+ *      - scans the array for existing runs: non-descending runs are kept, strictly descending runs are
+ *        reversed. Runs shorter than minRun (between 32 and 64) are extended with binary insertion sort.
+ *      - keeps the runs on a stack and merges neighbouring runs while their lengths would otherwise
+ *        stop decreasing geometrically, so merges are balanced and the stack stays O(logn) deep.
+ *      - before each merge, gallops (exponential then binary search) to skip the prefix of the left run
+ *        and the suffix of the right run that are already in place, then copies only the shorter of the
+ *        remaining runs into the scratch buffer.
+ * On random input this is O(nlogn). Sorted, reversed and nearly sorted input (e.g. a time series with a
+ * few late values) consists of few long runs, and sorts in close to O(n).
+ *
+ * The scratch buffer and run stack are kept between calls, so once the buffer has grown to half the
+ * length of the largest range sorted, sorting allocates nothing. A MergeSorter must not be shared by
+ * several threads at once.
+ */
+public class MergeSorter {
+
+    // Ranges smaller than this are sorted with a single binary insertion sort.
+    static final int MIN_MERGE = 64;
+    // The invariants on run lengths keep the stack smaller than this for any int length.
+    private static final int MAX_RUNS = 85;
+
+    private double[] buffer;
+    private final int[] runBase = new int[MAX_RUNS];
+    private final int[] runLength = new int[MAX_RUNS];
+    private int numOfRuns;
+
+    public MergeSorter() {
+        this(0);
+    }
+
+    /**
+     * @param capacity  - Length of the largest range expected to be sorted, to size the buffer up front.
+     */
+    public MergeSorter(int capacity) {
+        buffer = new double[capacity / 2];
+    }
+
+    public void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex).
+     */
+    public void sort(double[] array, int leftIndex, int rightIndex) {
+        int remaining = rightIndex - leftIndex;
+        if (remaining < 2) {
+            return;
+        }
+        if (remaining < MIN_MERGE) {
+            int runEnd = countRunAndMakeAscending(array, leftIndex, rightIndex);
+            binaryInsertionSort(array, leftIndex, rightIndex, runEnd);
+            return;
+        }
+        if (buffer.length < remaining / 2) {
+            buffer = new double[remaining / 2];
+        }
+
+        numOfRuns = 0;
+        int minRun = minRunLength(remaining);
+        int runStart = leftIndex;
+        while (remaining > 0) {
+            int runEnd = countRunAndMakeAscending(array, runStart, rightIndex);
+            // Extend short runs to minRun values.
+            if (runEnd - runStart < minRun) {
+                int forcedEnd = runStart + Math.min(remaining, minRun);
+                binaryInsertionSort(array, runStart, forcedEnd, runEnd);
+                runEnd = forcedEnd;
+            }
+            runBase[numOfRuns] = runStart;
+            runLength[numOfRuns] = runEnd - runStart;
+            numOfRuns++;
+            mergeCollapse(array);
+
+            remaining -= runEnd - runStart;
+            runStart = runEnd;
+        }
+        mergeForceCollapse(array);
+    }
+
+    /**
+     * Merge runs at the top of the stack until, for the top three runs X, Y, Z (Z on top),
+     *      len(X) > len(Y) + len(Z) and len(Y) > len(Z).
+     */
+    private void mergeCollapse(double[] array) {
+        while (numOfRuns > 1) {
+            int n = numOfRuns - 2;
+            if ((n > 0 && runLength[n-1] <= runLength[n] + runLength[n+1])
+                    || (n > 1 && runLength[n-2] <= runLength[n-1] + runLength[n])) {
+                if (runLength[n-1] < runLength[n+1]) {
+                    n--;
+                }
+                mergeAt(array, n);
+            } else if (runLength[n] <= runLength[n+1]) {
+                mergeAt(array, n);
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void mergeForceCollapse(double[] array) {
+        while (numOfRuns > 1) {
+            int n = numOfRuns - 2;
+            if (n > 0 && runLength[n-1] < runLength[n+1]) {
+                n--;
+            }
+            mergeAt(array, n);
+        }
+    }
+
+    /**
+     * Merge the runs at stack positions i and i+1.
+     */
+    private void mergeAt(double[] array, int i) {
+        int base1 = runBase[i], length1 = runLength[i];
+        int base2 = runBase[i+1], length2 = runLength[i+1];
+
+        runLength[i] = length1 + length2;
+        if (i == numOfRuns - 3) {
+            runBase[i+1] = runBase[i+2];
+            runLength[i+1] = runLength[i+2];
+        }
+        numOfRuns--;
+
+        // Values of run 1 not greater than the first value of run 2 are already in place.
+        int k = gallopRight(array[base2], array, base1, length1);
+        base1 += k;
+        length1 -= k;
+        if (length1 == 0) {
+            return;
+        }
+        // Values of run 2 not less than the last value of run 1 are already in place.
+        length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2);
+        if (length2 == 0) {
+            return;
+        }
+
+        if (length1 <= length2) {
+            mergeLow(array, base1, length1, base2, length2);
+        } else {
+            mergeHigh(array, base1, length1, base2, length2);
+        }
+    }
+
+    /**
+     * Merge by copying run 1 into the buffer and merging from the left.
+     */
+    private void mergeLow(double[] array, int base1, int length1, int base2, int length2) {
+        System.arraycopy(array, base1, buffer, 0, length1);
+        int i = 0, j = base2, end2 = base2 + length2, dest = base1;
+        while (i < length1 && j < end2) {
+            if (array[j] < buffer[i]) {
+                array[dest++] = array[j++];
+            } else {
+                array[dest++] = buffer[i++];
+            }
+        }
+        // Any values left in run 2 are already in place.
+        System.arraycopy(buffer, i, array, dest, length1 - i);
+    }
+
+    /**
+     * Merge by copying run 2 into the buffer and merging from the right.
+     */
+    private void mergeHigh(double[] array, int base1, int length1, int base2, int length2) {
+        System.arraycopy(array, base2, buffer, 0, length2);
+        int i = base1 + length1 - 1, j = length2 - 1, dest = base2 + length2 - 1;
+        while (i >= base1 && j >= 0) {
+            if (buffer[j] < array[i]) {
+                array[dest--] = array[i--];
+            } else {
+                array[dest--] = buffer[j--];
+            }
+        }
+        // Any values left in run 1 are already in place.
+        System.arraycopy(buffer, 0, array, dest - j, j + 1);
+    }
+
+    /**
+     * Gallop from the left of array[base:base+length), which is sorted.
+     * @return The number of values not greater than key.
+     */
+    static int gallopRight(double key, double[] array, int base, int length) {
+        if (length == 0 || key < array[base]) {
+            return 0;
+        }
+        // array[base+low] <= key, and array[base+high] > key if high < length.
+        int low = 0, high = 1;
+        while (high < length && array[base + high] <= key) {
+            low = high;
+            high = 2*high + 1;
+        }
+        high = Math.min(high, length);
+        low++;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[base + mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gallop from the right of array[base:base+length), which is sorted.
+     * @return The number of values less than key.
+     */
+    static int gallopLeft(double key, double[] array, int base, int length) {
+        if (length == 0 || array[base + length - 1] < key) {
+            return length;
+        }
+        // array[base+high] >= key, and array[base+low] < key if low >= 0.
+        int high = length - 1, step = 1, low = high - step;
+        while (low >= 0 && array[base + low] >= key) {
+            high = low;
+            step <<= 1;
+            low = high - step;
+        }
+        low = Math.max(low, -1) + 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[base + mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the run starting at leftIndex. If it is strictly descending, reverse it.
+     * @return The end of the run (exclusive).
+     */
+    static int countRunAndMakeAscending(double[] array, int leftIndex, int rightIndex) {
+        int runEnd = leftIndex + 1;
+        if (runEnd == rightIndex) {
+            return runEnd;
+        }
+        if (array[runEnd++] < array[leftIndex]) {
+            while (runEnd < rightIndex && array[runEnd] < array[runEnd - 1]) {
+                runEnd++;
+            }
+            for (int i=leftIndex, j=runEnd-1; i<j; i++, j--) {
+                Sort.swap(array, i, j);
+            }
+        } else {
+            while (runEnd < rightIndex && array[runEnd] >= array[runEnd - 1]) {
+                runEnd++;
+            }
+        }
+        return runEnd;
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex), given array[leftIndex:sortedEnd) is already sorted. Each value is
+     * placed with a binary search, then the values after the insertion point are shifted with one copy.
+     */
+    static void binaryInsertionSort(double[] array, int leftIndex, int rightIndex, int sortedEnd) {
+        for (int i=sortedEnd; i<rightIndex; i++) {
+            double value = array[i];
+            int low = leftIndex, high = i;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (value < array[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            System.arraycopy(array, low, array, low + 1, i - low);
+            array[low] = value;
+        }
+    }
+
+    /**
+     * @return A run length k in [MIN_MERGE/2, MIN_MERGE] such that length/k is close to, but no more than,
+     *         a power of two. Runs of length k then merge in balanced pairs.
+     */
+    static int minRunLength(int length) {
+        int remainder = 0;
+        while (length >= MIN_MERGE) {
+            remainder |= length & 1;
+            length >>= 1;
+        }
+        return length + remainder;
+    }
+}
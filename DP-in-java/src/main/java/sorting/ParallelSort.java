@@ -0,0 +1,482 @@
+package sorting;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A parallel merge sort for primitive arrays, run on a ForkJoinPool.
+ *
+ * Ranges are split in half until they have at most threshold values, and each leaf is sorted
+ * sequentially (double values with Sort.quickSort, int and long values with Arrays.sort). Sorted halves
+ * are then merged, alternating between the array and one scratch buffer as long as the range sorted, so
+ * no other arrays are allocated.
+ *
+ * Merging two sorted ranges in one task would make the top level merge a serial O(n) step. Instead the
+ * merge is divided and conquered as well: take the middle value of the longer range, binary search for
+ * where it splits the shorter range, place it directly at its final position, and merge the two pairs
+ * of pieces on either side of it in parallel. This gives O(n) work and O(log^2 n) span per merge, so
+ * the sort as a whole has O(nlogn) work and O(log^3 n) span.
+ */
+public class ParallelSort {
+
+    // Ranges with at most this many values are sorted or merged sequentially.
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ParallelSort() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ParallelSort(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public ForkJoinPool getPool() {return this.pool;}
+
+    public int getThreshold() {return this.threshold;}
+
+    public void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex).
+     */
+    public void sort(double[] array, int leftIndex, int rightIndex) {
+        if (rightIndex - leftIndex <= threshold) {
+            Sort.quickSort(array, leftIndex, rightIndex, PivotStrategy.NINTHER);
+            return;
+        }
+        double[] buffer = new double[rightIndex - leftIndex];
+        pool.invoke(new DoubleSortTask(array, buffer, leftIndex, leftIndex, rightIndex, false, threshold));
+    }
+
+    public void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex).
+     */
+    public void sort(int[] array, int leftIndex, int rightIndex) {
+        if (rightIndex - leftIndex <= threshold) {
+            Arrays.sort(array, leftIndex, rightIndex);
+            return;
+        }
+        int[] buffer = new int[rightIndex - leftIndex];
+        pool.invoke(new IntSortTask(array, buffer, leftIndex, leftIndex, rightIndex, false, threshold));
+    }
+
+    public void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex).
+     */
+    public void sort(long[] array, int leftIndex, int rightIndex) {
+        if (rightIndex - leftIndex <= threshold) {
+            Arrays.sort(array, leftIndex, rightIndex);
+            return;
+        }
+        long[] buffer = new long[rightIndex - leftIndex];
+        pool.invoke(new LongSortTask(array, buffer, leftIndex, leftIndex, rightIndex, false, threshold));
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose value is not less than key.
+     */
+    private static int lowerBound(double[] array, int leftIndex, int rightIndex, double key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (array[mid] < key) {
+                leftIndex = mid + 1;
+            } else {
+                rightIndex = mid;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose value is greater than key.
+     */
+    private static int upperBound(double[] array, int leftIndex, int rightIndex, double key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (key < array[mid]) {
+                rightIndex = mid;
+            } else {
+                leftIndex = mid + 1;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose value is not less than key.
+     */
+    private static int lowerBound(int[] array, int leftIndex, int rightIndex, int key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (array[mid] < key) {
+                leftIndex = mid + 1;
+            } else {
+                rightIndex = mid;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose value is greater than key.
+     */
+    private static int upperBound(int[] array, int leftIndex, int rightIndex, int key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (key < array[mid]) {
+                rightIndex = mid;
+            } else {
+                leftIndex = mid + 1;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose value is not less than key.
+     */
+    private static int lowerBound(long[] array, int leftIndex, int rightIndex, long key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (array[mid] < key) {
+                leftIndex = mid + 1;
+            } else {
+                rightIndex = mid;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * @return The first index in [leftIndex, rightIndex) whose value is greater than key.
+     */
+    private static int upperBound(long[] array, int leftIndex, int rightIndex, long key) {
+        while (leftIndex < rightIndex) {
+            int mid = (leftIndex + rightIndex) >>> 1;
+            if (key < array[mid]) {
+                rightIndex = mid;
+            } else {
+                leftIndex = mid + 1;
+            }
+        }
+        return leftIndex;
+    }
+
+    /**
+     * Sorts array[leftIndex:rightIndex), leaving the result in buffer if intoBuffer, otherwise in array.
+     * The buffer only covers the range of the whole sort, from offset.
+     */
+    private static class DoubleSortTask extends RecursiveAction {
+
+        private final double[] array, buffer;
+        // array[i] corresponds to buffer[i - offset].
+        private final int offset, leftIndex, rightIndex, threshold;
+        private final boolean intoBuffer;
+
+        DoubleSortTask(double[] array, double[] buffer, int offset, int leftIndex, int rightIndex, boolean intoBuffer, int threshold) {
+            this.array = array;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.leftIndex = leftIndex;
+            this.rightIndex = rightIndex;
+            this.intoBuffer = intoBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            // Base case, sort sequentially.
+            if (rightIndex - leftIndex <= threshold) {
+                Sort.quickSort(array, leftIndex, rightIndex, PivotStrategy.NINTHER);
+                if (intoBuffer) {
+                    System.arraycopy(array, leftIndex, buffer, leftIndex - offset, rightIndex - leftIndex);
+                }
+                return;
+            }
+            // Inductive case, sort both halves into the other array, then merge them back.
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            invokeAll(
+                    new DoubleSortTask(array, buffer, offset, leftIndex, midIndex, !intoBuffer, threshold),
+                    new DoubleSortTask(array, buffer, offset, midIndex, rightIndex, !intoBuffer, threshold));
+            if (intoBuffer) {
+                new DoubleMergeTask(array, leftIndex, midIndex, midIndex, rightIndex, buffer, leftIndex - offset, threshold).compute();
+            } else {
+                new DoubleMergeTask(buffer, leftIndex - offset, midIndex - offset, midIndex - offset, rightIndex - offset,
+                        array, leftIndex, threshold).compute();
+            }
+        }
+    }
+
+    /**
+     * Merges sorted source[left1:right1) and source[left2:right2) into destination, starting at
+     * destinationIndex.
+     */
+    private static class DoubleMergeTask extends RecursiveAction {
+
+        private final double[] source, destination;
+        private final int left1, right1, left2, right2, destinationIndex, threshold;
+
+        DoubleMergeTask(double[] source, int left1, int right1, int left2, int right2,
+                  double[] destination, int destinationIndex, int threshold) {
+            this.source = source;
+            this.left1 = left1;
+            this.right1 = right1;
+            this.left2 = left2;
+            this.right2 = right2;
+            this.destination = destination;
+            this.destinationIndex = destinationIndex;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int length1 = right1 - left1, length2 = right2 - left2;
+            // Base case, merge sequentially.
+            if (length1 + length2 <= threshold) {
+                int i = left1, j = left2, k = destinationIndex;
+                while (i < right1 && j < right2) {
+                    destination[k++] = source[j] < source[i] ? source[j++] : source[i++];
+                }
+                System.arraycopy(source, i, destination, k, right1 - i);
+                System.arraycopy(source, j, destination, k + right1 - i, right2 - j);
+                return;
+            }
+            // Inductive case, split the longer range at its middle value.
+            if (length1 >= length2) {
+                int mid1 = (left1 + right1) >>> 1;
+                int mid2 = lowerBound(source, left2, right2, source[mid1]);
+                int midDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+                destination[midDestination] = source[mid1];
+                invokeAll(
+                        new DoubleMergeTask(source, left1, mid1, left2, mid2, destination, destinationIndex, threshold),
+                        new DoubleMergeTask(source, mid1 + 1, right1, mid2, right2, destination, midDestination + 1, threshold));
+            } else {
+                int mid2 = (left2 + right2) >>> 1;
+                int mid1 = upperBound(source, left1, right1, source[mid2]);
+                int midDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+                destination[midDestination] = source[mid2];
+                invokeAll(
+                        new DoubleMergeTask(source, left1, mid1, left2, mid2, destination, destinationIndex, threshold),
+                        new DoubleMergeTask(source, mid1, right1, mid2 + 1, right2, destination, midDestination + 1, threshold));
+            }
+        }
+    }
+
+    /**
+     * Sorts array[leftIndex:rightIndex), leaving the result in buffer if intoBuffer, otherwise in array.
+     * The buffer only covers the range of the whole sort, from offset.
+     */
+    private static class IntSortTask extends RecursiveAction {
+
+        private final int[] array, buffer;
+        // array[i] corresponds to buffer[i - offset].
+        private final int offset, leftIndex, rightIndex, threshold;
+        private final boolean intoBuffer;
+
+        IntSortTask(int[] array, int[] buffer, int offset, int leftIndex, int rightIndex, boolean intoBuffer, int threshold) {
+            this.array = array;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.leftIndex = leftIndex;
+            this.rightIndex = rightIndex;
+            this.intoBuffer = intoBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            // Base case, sort sequentially.
+            if (rightIndex - leftIndex <= threshold) {
+                Arrays.sort(array, leftIndex, rightIndex);
+                if (intoBuffer) {
+                    System.arraycopy(array, leftIndex, buffer, leftIndex - offset, rightIndex - leftIndex);
+                }
+                return;
+            }
+            // Inductive case, sort both halves into the other array, then merge them back.
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            invokeAll(
+                    new IntSortTask(array, buffer, offset, leftIndex, midIndex, !intoBuffer, threshold),
+                    new IntSortTask(array, buffer, offset, midIndex, rightIndex, !intoBuffer, threshold));
+            if (intoBuffer) {
+                new IntMergeTask(array, leftIndex, midIndex, midIndex, rightIndex, buffer, leftIndex - offset, threshold).compute();
+            } else {
+                new IntMergeTask(buffer, leftIndex - offset, midIndex - offset, midIndex - offset, rightIndex - offset,
+                        array, leftIndex, threshold).compute();
+            }
+        }
+    }
+
+    /**
+     * Merges sorted source[left1:right1) and source[left2:right2) into destination, starting at
+     * destinationIndex.
+     */
+    private static class IntMergeTask extends RecursiveAction {
+
+        private final int[] source, destination;
+        private final int left1, right1, left2, right2, destinationIndex, threshold;
+
+        IntMergeTask(int[] source, int left1, int right1, int left2, int right2,
+                  int[] destination, int destinationIndex, int threshold) {
+            this.source = source;
+            this.left1 = left1;
+            this.right1 = right1;
+            this.left2 = left2;
+            this.right2 = right2;
+            this.destination = destination;
+            this.destinationIndex = destinationIndex;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int length1 = right1 - left1, length2 = right2 - left2;
+            // Base case, merge sequentially.
+            if (length1 + length2 <= threshold) {
+                int i = left1, j = left2, k = destinationIndex;
+                while (i < right1 && j < right2) {
+                    destination[k++] = source[j] < source[i] ? source[j++] : source[i++];
+                }
+                System.arraycopy(source, i, destination, k, right1 - i);
+                System.arraycopy(source, j, destination, k + right1 - i, right2 - j);
+                return;
+            }
+            // Inductive case, split the longer range at its middle value.
+            if (length1 >= length2) {
+                int mid1 = (left1 + right1) >>> 1;
+                int mid2 = lowerBound(source, left2, right2, source[mid1]);
+                int midDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+                destination[midDestination] = source[mid1];
+                invokeAll(
+                        new IntMergeTask(source, left1, mid1, left2, mid2, destination, destinationIndex, threshold),
+                        new IntMergeTask(source, mid1 + 1, right1, mid2, right2, destination, midDestination + 1, threshold));
+            } else {
+                int mid2 = (left2 + right2) >>> 1;
+                int mid1 = upperBound(source, left1, right1, source[mid2]);
+                int midDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+                destination[midDestination] = source[mid2];
+                invokeAll(
+                        new IntMergeTask(source, left1, mid1, left2, mid2, destination, destinationIndex, threshold),
+                        new IntMergeTask(source, mid1, right1, mid2 + 1, right2, destination, midDestination + 1, threshold));
+            }
+        }
+    }
+
+    /**
+     * Sorts array[leftIndex:rightIndex), leaving the result in buffer if intoBuffer, otherwise in array.
+     * The buffer only covers the range of the whole sort, from offset.
+     */
+    private static class LongSortTask extends RecursiveAction {
+
+        private final long[] array, buffer;
+        // array[i] corresponds to buffer[i - offset].
+        private final int offset, leftIndex, rightIndex, threshold;
+        private final boolean intoBuffer;
+
+        LongSortTask(long[] array, long[] buffer, int offset, int leftIndex, int rightIndex, boolean intoBuffer, int threshold) {
+            this.array = array;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.leftIndex = leftIndex;
+            this.rightIndex = rightIndex;
+            this.intoBuffer = intoBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            // Base case, sort sequentially.
+            if (rightIndex - leftIndex <= threshold) {
+                Arrays.sort(array, leftIndex, rightIndex);
+                if (intoBuffer) {
+                    System.arraycopy(array, leftIndex, buffer, leftIndex - offset, rightIndex - leftIndex);
+                }
+                return;
+            }
+            // Inductive case, sort both halves into the other array, then merge them back.
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            invokeAll(
+                    new LongSortTask(array, buffer, offset, leftIndex, midIndex, !intoBuffer, threshold),
+                    new LongSortTask(array, buffer, offset, midIndex, rightIndex, !intoBuffer, threshold));
+            if (intoBuffer) {
+                new LongMergeTask(array, leftIndex, midIndex, midIndex, rightIndex, buffer, leftIndex - offset, threshold).compute();
+            } else {
+                new LongMergeTask(buffer, leftIndex - offset, midIndex - offset, midIndex - offset, rightIndex - offset,
+                        array, leftIndex, threshold).compute();
+            }
+        }
+    }
+
+    /**
+     * Merges sorted source[left1:right1) and source[left2:right2) into destination, starting at
+     * destinationIndex.
+     */
+    private static class LongMergeTask extends RecursiveAction {
+
+        private final long[] source, destination;
+        private final int left1, right1, left2, right2, destinationIndex, threshold;
+
+        LongMergeTask(long[] source, int left1, int right1, int left2, int right2,
+                  long[] destination, int destinationIndex, int threshold) {
+            this.source = source;
+            this.left1 = left1;
+            this.right1 = right1;
+            this.left2 = left2;
+            this.right2 = right2;
+            this.destination = destination;
+            this.destinationIndex = destinationIndex;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int length1 = right1 - left1, length2 = right2 - left2;
+            // Base case, merge sequentially.
+            if (length1 + length2 <= threshold) {
+                int i = left1, j = left2, k = destinationIndex;
+                while (i < right1 && j < right2) {
+                    destination[k++] = source[j] < source[i] ? source[j++] : source[i++];
+                }
+                System.arraycopy(source, i, destination, k, right1 - i);
+                System.arraycopy(source, j, destination, k + right1 - i, right2 - j);
+                return;
+            }
+            // Inductive case, split the longer range at its middle value.
+            if (length1 >= length2) {
+                int mid1 = (left1 + right1) >>> 1;
+                int mid2 = lowerBound(source, left2, right2, source[mid1]);
+                int midDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+                destination[midDestination] = source[mid1];
+                invokeAll(
+                        new LongMergeTask(source, left1, mid1, left2, mid2, destination, destinationIndex, threshold),
+                        new LongMergeTask(source, mid1 + 1, right1, mid2, right2, destination, midDestination + 1, threshold));
+            } else {
+                int mid2 = (left2 + right2) >>> 1;
+                int mid1 = upperBound(source, left1, right1, source[mid2]);
+                int midDestination = destinationIndex + (mid1 - left1) + (mid2 - left2);
+                destination[midDestination] = source[mid2];
+                invokeAll(
+                        new LongMergeTask(source, left1, mid1, left2, mid2, destination, destinationIndex, threshold),
+                        new LongMergeTask(source, mid1, right1, mid2 + 1, right2, destination, midDestination + 1, threshold));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package sorting;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Methods for selecting the pivot of a quicksort partition of array[leftIndex:rightIndex).
+ */
+public enum PivotStrategy {
+
+    // Use the first value of the range. Quadratic on sorted input without a depth limit.
+    LEFT_INDEX("left-index") {
+        @Override
+        public int select(double[] array, int leftIndex, int rightIndex) {
+            return leftIndex;
+        }
+    },
+    // Use the last value of the range. Quadratic on sorted input without a depth limit.
+    RIGHT_INDEX("right-index") {
+        @Override
+        public int select(double[] array, int leftIndex, int rightIndex) {
+            return rightIndex - 1;
+        }
+    },
+    // Use the median of the first, middle and last values.
+    MEDIAN_OF_THREE("median-of-three") {
+        @Override
+        public int select(double[] array, int leftIndex, int rightIndex) {
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            return medianOfThree(array, leftIndex, midIndex, rightIndex - 1);
+        }
+    },
+    // Tukey's ninther: the median of the medians of three groups of three values, spread over the range.
+    // Falls back to the median of three for small ranges.
+    NINTHER("ninther") {
+        @Override
+        public int select(double[] array, int leftIndex, int rightIndex) {
+            int length = rightIndex - leftIndex;
+            if (length < NINTHER_THRESHOLD) {
+                return MEDIAN_OF_THREE.select(array, leftIndex, rightIndex);
+            }
+            int step = length / 8;
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            int lastIndex = rightIndex - 1;
+            return medianOfThree(array,
+                    medianOfThree(array, leftIndex, leftIndex + step, leftIndex + 2 * step),
+                    medianOfThree(array, midIndex - step, midIndex, midIndex + step),
+                    medianOfThree(array, lastIndex - 2 * step, lastIndex - step, lastIndex));
+        }
+    },
+    // Use a value chosen uniformly at random.
+    RANDOM("random") {
+        @Override
+        public int select(double[] array, int leftIndex, int rightIndex) {
+            return ThreadLocalRandom.current().nextInt(leftIndex, rightIndex);
+        }
+    };
+
+    // Ranges smaller than this use the median of three instead of the ninther.
+    static final int NINTHER_THRESHOLD = 40;
+
+    private final String name;
+
+    PivotStrategy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return Index of the pivot, in [leftIndex, rightIndex).
+     */
+    public abstract int select(double[] array, int leftIndex, int rightIndex);
+
+    public String getName() {return this.name;}
+
+    /**
+     * @param name  - One of "left-index", "right-index", "median-of-three", "ninther" or "random".
+     */
+    public static PivotStrategy fromName(String name) {
+        for (PivotStrategy strategy : values()) {
+            if (strategy.name.equals(name)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Invalid pivot method: " + name);
+    }
+
+    /**
+     * @return Whichever of indices i, j, k holds the median of their three values.
+     */
+    static int medianOfThree(double[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k]) return j;
+            return array[i] < array[k] ? k : i;
+        } else {
+            if (array[k] < array[j]) return j;
+            return array[k] < array[i] ? k : i;
+        }
+    }
+}
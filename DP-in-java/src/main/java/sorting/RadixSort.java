@@ -0,0 +1,129 @@
+package sorting;
+
+/**
+ * A least significant digit (LSD) radix sort for doubles.
+ *
+ * Each double is mapped to a 64 bit key whose unsigned order is the order of the doubles:
+ *      - for positive values (sign bit 0), flip the sign bit, so they come after all negative values.
+ *      - for negative values (sign bit 1), flip all bits, so larger magnitudes come first.
+ * The keys are then sorted 11 bits (one digit) at a time, from the least significant digit to the most,
+ * with a stable counting sort per digit. That is 6 passes over the data regardless of n, so O(n) in total,
+ * with no comparisons.
+ *
+ * The counts of all 6 digits are computed in a single pass at the start. A digit that is the same for
+ * every key (e.g. the top digit when all values have the same sign and similar magnitude) does not change
+ * the order, so its pass is skipped. Values move back and forth between the array and one buffer of the
+ * same length; if an odd number of passes ran, the result is copied back at the end.
+ *
+ * Special values are ordered as by Arrays.sort: -0.0 comes before 0.0, and NaN comes after positive
+ * infinity. All NaN values are replaced with the canonical Double.NaN.
+ */
+public class RadixSort {
+
+    static final int DIGIT_BITS = 11;
+    static final int RADIX = 1 << DIGIT_BITS;
+    static final int NUM_OF_PASSES = (Long.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+    // Ranges smaller than this are sorted by insertion sort on the keys.
+    static final int INSERTION_SORT_THRESHOLD = 64;
+
+    private RadixSort() {
+
+    }
+
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex).
+     */
+    public static void sort(double[] array, int leftIndex, int rightIndex) {
+        int length = rightIndex - leftIndex;
+        sort(array, leftIndex, rightIndex, new double[length < INSERTION_SORT_THRESHOLD ? 0 : length]);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex), using buffer (of at least rightIndex-leftIndex values) as scratch space.
+     */
+    public static void sort(double[] array, int leftIndex, int rightIndex, double[] buffer) {
+        int length = rightIndex - leftIndex;
+        for (int i=leftIndex; i<rightIndex; i++) {
+            if (array[i] != array[i]) {
+                array[i] = Double.NaN;
+            }
+        }
+        if (length < INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, leftIndex, rightIndex);
+            return;
+        }
+        if (buffer.length < length) {
+            throw new IllegalArgumentException("Buffer must hold at least " + length + " values.");
+        }
+
+        // counts[pass][digit] is the number of keys with that digit in that pass.
+        int[][] counts = new int[NUM_OF_PASSES][RADIX];
+        for (int i=leftIndex; i<rightIndex; i++) {
+            long key = key(array[i]);
+            for (int pass=0; pass<NUM_OF_PASSES; pass++) {
+                counts[pass][digit(key, pass)]++;
+            }
+        }
+
+        // Values are in source[sourceIndex:sourceIndex+length).
+        double[] source = array, destination = buffer;
+        int sourceIndex = leftIndex, destinationIndex = 0;
+        long firstKey = key(array[leftIndex]);
+        for (int pass=0; pass<NUM_OF_PASSES; pass++) {
+            int[] count = counts[pass];
+            if (count[digit(firstKey, pass)] == length) {
+                // All keys share this digit.
+                continue;
+            }
+            // Turn counts into the starting index of each digit.
+            int offset = destinationIndex;
+            for (int d=0; d<RADIX; d++) {
+                int c = count[d];
+                count[d] = offset;
+                offset += c;
+            }
+            for (int i=sourceIndex; i<sourceIndex+length; i++) {
+                double value = source[i];
+                destination[count[digit(key(value), pass)]++] = value;
+            }
+            double[] temp = source;
+            source = destination;
+            destination = temp;
+            int tempIndex = sourceIndex;
+            sourceIndex = destinationIndex;
+            destinationIndex = tempIndex;
+        }
+        if (source != array) {
+            System.arraycopy(source, sourceIndex, array, leftIndex, length);
+        }
+    }
+
+    /**
+     * @return A key whose unsigned order is the order of the doubles.
+     */
+    static long key(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static int digit(long key, int pass) {
+        return (int) (key >>> (pass * DIGIT_BITS)) & (RADIX - 1);
+    }
+
+    private static void insertionSort(double[] array, int leftIndex, int rightIndex) {
+        for (int i=leftIndex+1; i<rightIndex; i++) {
+            double value = array[i];
+            long key = key(value);
+            int j = i - 1;
+            while (j >= leftIndex && Long.compareUnsigned(key(array[j]), key) > 0) {
+                array[j+1] = array[j];
+                j--;
+            }
+            array[j+1] = value;
+        }
+    }
+}
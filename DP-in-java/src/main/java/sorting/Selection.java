@@ -0,0 +1,100 @@
+package sorting;
+
+/**
+ * Selection of the k-th smallest value of a range, without sorting the whole range.
+ *
+ * select uses introselect: quickselect (partition around a ninther pivot with Sort.partition, then continue
+ * in the side that holds index k) is expected O(n), since each partition roughly halves the range. If two
+ * partitions in a row fail to halve the range, the pivots are chosen with median of medians instead:
+ *      - split the range into groups of 5 and find the median of each group.
+ *      - select the median of those n/5 medians recursively.
+ * At least 3/10 of the range is on either side of that pivot, so the range shrinks geometrically and the
+ * worst case is O(n).
+ *
+ * As with Sort, ranges are array[leftIndex:rightIndex), but k is an index into the array, not an offset
+ * from leftIndex.
+ */
+public class Selection {
+
+    // Ranges with at most this many values are finished with insertion sort.
+    static final int INSERTION_SORT_THRESHOLD = Sort.INSERTION_SORT_THRESHOLD;
+
+    private Selection() {
+
+    }
+
+    public static double select(double[] array, int k) {
+        return select(array, 0, array.length, k);
+    }
+
+    /**
+     * Rearrange array[leftIndex:rightIndex) so that array[k] holds the value it would hold if the range
+     * were sorted, values before it are less than or equal to it, and values after it are greater than
+     * or equal to it.
+     * @return The value at array[k].
+     */
+    public static double select(double[] array, int leftIndex, int rightIndex, int k) {
+        if (k < leftIndex || k >= rightIndex) {
+            throw new IllegalArgumentException("Index " + k + " is outside [" + leftIndex + ", " + rightIndex + ").");
+        }
+        // Length of the range two partitions ago.
+        int checkpoint = rightIndex - leftIndex;
+        int numOfPartitions = 0;
+        boolean medianOfMedians = false;
+        while (rightIndex - leftIndex > INSERTION_SORT_THRESHOLD) {
+            if (numOfPartitions == 2) {
+                if (2 * (rightIndex - leftIndex) > checkpoint) {
+                    medianOfMedians = true;
+                }
+                checkpoint = rightIndex - leftIndex;
+                numOfPartitions = 0;
+            }
+            numOfPartitions++;
+            int pivotIndex = medianOfMedians
+                    ? medianOfMediansPivot(array, leftIndex, rightIndex)
+                    : PivotStrategy.NINTHER.select(array, leftIndex, rightIndex);
+            int pivot = Sort.partition(array, leftIndex, rightIndex, pivotIndex);
+            if (k == pivot) {
+                return array[k];
+            } else if (k < pivot) {
+                rightIndex = pivot;
+            } else {
+                leftIndex = pivot + 1;
+            }
+        }
+        Sort.insertionSort(array, leftIndex, rightIndex);
+        return array[k];
+    }
+
+    /**
+     * Move the medians of groups of 5 to the front of array[leftIndex:rightIndex), and select their median.
+     * @return The index of the median of medians.
+     */
+    static int medianOfMediansPivot(double[] array, int leftIndex, int rightIndex) {
+        int numOfGroups = 0;
+        for (int i=leftIndex; i<rightIndex; i+=5) {
+            int groupEnd = Math.min(i + 5, rightIndex);
+            Sort.insertionSort(array, i, groupEnd);
+            Sort.swap(array, leftIndex + numOfGroups, (i + groupEnd - 1) >>> 1);
+            numOfGroups++;
+        }
+        int median = leftIndex + numOfGroups / 2;
+        select(array, leftIndex, leftIndex + numOfGroups, median);
+        return median;
+    }
+
+    /**
+     * Rearrange array[leftIndex:rightIndex) so that array[leftIndex:leftIndex+k) holds its k smallest values
+     * in sorted order. The order of the other values is unspecified. O(n + klogk).
+     */
+    public static void partialSort(double[] array, int leftIndex, int rightIndex, int k) {
+        if (k < 0 || k > rightIndex - leftIndex) {
+            throw new IllegalArgumentException("Cannot sort the " + k + " smallest of " + (rightIndex - leftIndex) + " values.");
+        }
+        if (k == 0) {
+            return;
+        }
+        select(array, leftIndex, rightIndex, leftIndex + k - 1);
+        Sort.quickSort(array, leftIndex, leftIndex + k - 1, PivotStrategy.NINTHER);
+    }
+}
@@ -4,6 +4,9 @@ import java.util.Arrays;
 
 public class Sort {
 
+    // Ranges with at most this many values are sorted with insertion sort.
+    static final int INSERTION_SORT_THRESHOLD = 16;
+
     public static void bubbleSort(double[] array) {
         for(int i=0; i<array.length; i++) {
             double min = array[i];
@@ -52,57 +55,212 @@ public class Sort {
         }
     }
 
+    /**
+     * Sort array[leftIndex:rightIndex) with quicksort.
+     * @param pivotMethod - The method by which the pivot point is selected. See PivotStrategy.fromName.
+     */
     public static void quickSort(double[] array, int leftIndex, int rightIndex, String pivotMethod) {
-        if (rightIndex - leftIndex <= 1) {
-            return;
-        } else {
-            int pivot = getPivot(array, leftIndex, rightIndex, pivotMethod);
-            double pivotValue = array[pivot-1];
-
-            // Sort values of array such that those less than pivotValue come before it,
-            // and those greater than pivotValue come after it.
-
-            int i = leftIndex;
-
-            for(int j = leftIndex+1; j<rightIndex; j++) {
-                if (array[j] < pivotValue) {
-                    // Swap pivot and array[j]
-                    double temp = array[i];
-                    array[i] = array[j];
-                    array[j] = temp;
-                    i++;
+        quickSort(array, leftIndex, rightIndex, PivotStrategy.fromName(pivotMethod));
+    }
+
+    public static void quickSort(double[] array) {
+        quickSort(array, 0, array.length, PivotStrategy.NINTHER);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex) with introsort: quicksort, using insertion sort for small ranges,
+     * and switching to heapsort once the recursion is deeper than 2*log2(n). A poor choice of pivots
+     * (e.g. the left index on sorted input) can only waste O(logn) levels before heapsort takes over,
+     * so the worst case is O(nlogn).
+     */
+    public static void quickSort(double[] array, int leftIndex, int rightIndex, PivotStrategy pivotStrategy) {
+        introSort(array, leftIndex, rightIndex, pivotStrategy, depthLimit(rightIndex - leftIndex));
+    }
+
+    private static void introSort(double[] array, int leftIndex, int rightIndex, PivotStrategy pivotStrategy, int depthLimit) {
+        while (rightIndex - leftIndex > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, leftIndex, rightIndex);
+                return;
+            }
+            depthLimit--;
+            int pivot = partition(array, leftIndex, rightIndex, pivotStrategy.select(array, leftIndex, rightIndex));
+
+            // Recurse on the smaller side and loop on the larger, so the stack has O(logn) frames.
+            if (pivot - leftIndex < rightIndex - pivot) {
+                introSort(array, leftIndex, pivot, pivotStrategy, depthLimit);
+                leftIndex = pivot + 1;
+            } else {
+                introSort(array, pivot + 1, rightIndex, pivotStrategy, depthLimit);
+                rightIndex = pivot;
+            }
+        }
+        insertionSort(array, leftIndex, rightIndex);
+    }
+
+    /**
+     * Sort array[leftIndex:rightIndex) with dual-pivot quicksort. Two pivots p <= q split the range into
+     * three parts: values less than p, values in between, and values greater than q. The pivots are the
+     * second and fourth of five sorted samples spread over the range. Uses the same insertion sort cutoff
+     * and heapsort fallback as quickSort.
+     */
+    public static void dualPivotQuickSort(double[] array, int leftIndex, int rightIndex) {
+        dualPivotQuickSort(array, leftIndex, rightIndex, depthLimit(rightIndex - leftIndex));
+    }
+
+    private static void dualPivotQuickSort(double[] array, int leftIndex, int rightIndex, int depthLimit) {
+        while (rightIndex - leftIndex > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, leftIndex, rightIndex);
+                return;
+            }
+            depthLimit--;
+            int lastIndex = rightIndex - 1;
+
+            // Sort five samples in place with a sorting network, then move the second and fourth to the ends as pivots.
+            int step = (rightIndex - leftIndex) / 6;
+            int e3 = (leftIndex + rightIndex) >>> 1;
+            int e2 = e3 - step, e1 = e2 - step, e4 = e3 + step, e5 = e4 + step;
+            compareSwap(array, e1, e2); compareSwap(array, e4, e5); compareSwap(array, e3, e5);
+            compareSwap(array, e3, e4); compareSwap(array, e1, e4); compareSwap(array, e1, e3);
+            compareSwap(array, e2, e5); compareSwap(array, e2, e4); compareSwap(array, e2, e3);
+            swap(array, leftIndex, e2);
+            swap(array, lastIndex, e4);
+            double p = array[leftIndex], q = array[lastIndex];
+
+            // array[leftIndex+1:less) < p, array[less:k) in [p, q], array(greater:lastIndex) > q
+            int less = leftIndex + 1, greater = lastIndex - 1;
+            for (int k = less; k <= greater; k++) {
+                if (array[k] < p) {
+                    swap(array, k, less++);
+                } else if (array[k] > q) {
+                    while (array[greater] > q && k < greater) {
+                        greater--;
+                    }
+                    swap(array, k, greater--);
+                    if (array[k] < p) {
+                        swap(array, k, less++);
+                    }
                 }
             }
-            double temp = array[i];
-            array[i] = pivotValue;
-            array[rightIndex-1] = temp;
+            less--;
+            greater++;
+            swap(array, leftIndex, less);
+            swap(array, lastIndex, greater);
 
+            // Recurse on the two smaller parts and loop on the largest, so the stack has O(logn) frames.
+            // If the pivots are equal, the middle part only contains values equal to them.
+            int leftSize = less - leftIndex, rightSize = rightIndex - greater - 1;
+            int middleSize = p < q ? greater - less - 1 : 0;
+            if (leftSize >= middleSize && leftSize >= rightSize) {
+                if (middleSize > 0) {
+                    dualPivotQuickSort(array, less + 1, greater, depthLimit);
+                }
+                dualPivotQuickSort(array, greater + 1, rightIndex, depthLimit);
+                rightIndex = less;
+            } else if (rightSize >= middleSize) {
+                dualPivotQuickSort(array, leftIndex, less, depthLimit);
+                if (middleSize > 0) {
+                    dualPivotQuickSort(array, less + 1, greater, depthLimit);
+                }
+                leftIndex = greater + 1;
+            } else {
+                dualPivotQuickSort(array, leftIndex, less, depthLimit);
+                dualPivotQuickSort(array, greater + 1, rightIndex, depthLimit);
+                leftIndex = less + 1;
+                rightIndex = greater;
+            }
+        }
+        insertionSort(array, leftIndex, rightIndex);
+    }
 
-            quickSort(array, leftIndex, pivot, pivotMethod);
-            quickSort(array, pivot+1, rightIndex, pivotMethod);
+    /**
+     * Partition array[leftIndex:rightIndex) around the value at pivotIndex: values less than or equal
+     * to the pivot come before it, and values greater than or equal to it come after it. Values equal
+     * to the pivot stop both scans, so ranges with many duplicates are still split evenly.
+     * @return The final index of the pivot.
+     */
+    static int partition(double[] array, int leftIndex, int rightIndex, int pivotIndex) {
+        swap(array, leftIndex, pivotIndex);
+        double pivotValue = array[leftIndex];
+        int lastIndex = rightIndex - 1;
+        int i = leftIndex, j = rightIndex;
+        while (true) {
+            while (array[++i] < pivotValue) {
+                if (i == lastIndex) break;
+            }
+            while (pivotValue < array[--j]) {
+                if (j == leftIndex) break;
+            }
+            if (i >= j) break;
+            swap(array, i, j);
         }
+        swap(array, leftIndex, j);
+        return j;
     }
 
+    /**
+     * Sort array[leftIndex:rightIndex) by inserting each value into the sorted values before it.
+     * O(n^2), but fast for small or nearly sorted ranges.
+     */
+    static void insertionSort(double[] array, int leftIndex, int rightIndex) {
+        for (int i=leftIndex+1; i<rightIndex; i++) {
+            double value = array[i];
+            int j = i - 1;
+            while (j >= leftIndex && array[j] > value) {
+                array[j+1] = array[j];
+                j--;
+            }
+            array[j+1] = value;
+        }
+    }
 
     /**
-     * Identify pivot point between left and right indices.
-     * @param pivotMethod - The method by which the pivot point is selected.
-     * @return
+     * Sort array[leftIndex:rightIndex) with heapsort, using a max heap rooted at leftIndex.
      */
-    private static int getPivot(double[] array, int leftIndex, int rightIndex, String pivotMethod) {
+    static void heapSort(double[] array, int leftIndex, int rightIndex) {
+        int length = rightIndex - leftIndex;
+        for (int i=length/2 - 1; i>=0; i--) {
+            siftDown(array, leftIndex, i, length);
+        }
+        for (int end=length-1; end>0; end--) {
+            swap(array, leftIndex, leftIndex + end);
+            siftDown(array, leftIndex, 0, end);
+        }
+    }
 
-        // Use value at left index as pivot
-        if (pivotMethod.equals("left-index")){
-            return leftIndex;
-        } else if (pivotMethod.equals("right-index")) {
-            return rightIndex;
+    private static void siftDown(double[] array, int offset, int i, int length) {
+        double value = array[offset + i];
+        while (2*i + 1 < length) {
+            int child = 2*i + 1;
+            if (child + 1 < length && array[offset + child + 1] > array[offset + child]) {
+                child++;
+            }
+            if (array[offset + child] <= value) {
+                break;
+            }
+            array[offset + i] = array[offset + child];
+            i = child;
         }
-        // TODO add other methods for selecting pivot.
-        // Invalid pivot method
-        else {
-            return -1;
+        array[offset + i] = value;
+    }
+
+    private static int depthLimit(int length) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(length, 1)));
+    }
+
+    private static void compareSwap(double[] array, int i, int j) {
+        if (array[i] > array[j]) {
+            swap(array, i, j);
         }
     }
+
+    static void swap(double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
     /**
      * Merge two arrays by sorting elements.
      * @return The combination of the two input arrays.
@@ -0,0 +1,101 @@
+package sorting;
+
+/**
+ * Keeps the k largest values of a stream, e.g. the top k prices, in O(k) memory.
+ *
+ * The values are kept in a min heap of at most k doubles, so the smallest kept value is at the root. Once
+ * k values are kept, a new value is only kept if it is larger than the root, in which case it replaces the
+ * root and is sifted down. Offering n values costs O(nlogk) in the worst case, and close to O(n) when most
+ * values are smaller than the root.
+ */
+public class TopK {
+
+    private final double[] heap;
+    private int size = 0;
+
+    public TopK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.heap = new double[k];
+    }
+
+    /**
+     * @return True if value is now one of the k largest values offered.
+     */
+    public boolean offer(double value) {
+        if (size < heap.length) {
+            // Sift up.
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+            return true;
+        }
+        if (value <= heap[0]) {
+            return false;
+        }
+        siftDown(value);
+        return true;
+    }
+
+    /**
+     * Offer each value of array[leftIndex:rightIndex).
+     */
+    public void offer(double[] array, int leftIndex, int rightIndex) {
+        for (int i=leftIndex; i<rightIndex; i++) {
+            offer(array[i]);
+        }
+    }
+
+    private void siftDown(double value) {
+        int i = 0;
+        while (2*i + 1 < size) {
+            int child = 2*i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * @return The smallest of the kept values, which a value must exceed to be kept once k values are kept.
+     */
+    public double peek() {
+        if (size == 0) {
+            throw new IllegalStateException("No values have been offered.");
+        }
+        return heap[0];
+    }
+
+    public int size() {return this.size;}
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return The kept values, largest first.
+     */
+    public double[] toSortedArray() {
+        double[] values = new double[size];
+        System.arraycopy(heap, 0, values, 0, size);
+        Sort.quickSort(values);
+        for (int i=0, j=size-1; i<j; i++, j--) {
+            Sort.swap(values, i, j);
+        }
+        return values;
+    }
+}
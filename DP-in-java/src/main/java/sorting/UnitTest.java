@@ -1,8 +1,17 @@
 package sorting;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 public class UnitTest {
 
@@ -24,4 +33,434 @@ public class UnitTest {
         Sort.quickSort(array1, 0, array1.length, "right-index");
         System.out.println(Arrays.toString(array1));
     }
+
+    @Test
+    public void TestPivotStrategies() {
+        for (double[] input : getInputs()) {
+            double[] expected = input.clone();
+            Arrays.sort(expected);
+            for (PivotStrategy strategy : PivotStrategy.values()) {
+                double[] array = input.clone();
+                Sort.quickSort(array, 0, array.length, strategy);
+                Assert.assertArrayEquals(strategy.getName(), expected, array, 0);
+
+                array = input.clone();
+                Sort.quickSort(array, 0, array.length, strategy.getName());
+                Assert.assertArrayEquals(strategy.getName(), expected, array, 0);
+            }
+        }
+    }
+
+    @Test
+    public void TestDualPivotQuickSort() {
+        for (double[] input : getInputs()) {
+            double[] expected = input.clone();
+            Arrays.sort(expected);
+            double[] array = input.clone();
+            Sort.dualPivotQuickSort(array, 0, array.length);
+            Assert.assertArrayEquals(expected, array, 0);
+        }
+    }
+
+    @Test
+    public void TestQuickSortSubrange() {
+        double[] array = {5, 4, 3, 2, 1, 0};
+        Sort.quickSort(array, 1, 5, PivotStrategy.MEDIAN_OF_THREE);
+        Assert.assertArrayEquals(new double[]{5, 1, 2, 3, 4, 0}, array, 0);
+    }
+
+    @Test
+    public void TestMergeSorter() {
+        // One sorter reused across inputs, starting with no buffer.
+        MergeSorter sorter = new MergeSorter();
+        for (double[] input : getInputs()) {
+            double[] expected = input.clone();
+            Arrays.sort(expected);
+            double[] array = input.clone();
+            sorter.sort(array);
+            Assert.assertArrayEquals(expected, array, 0);
+        }
+    }
+
+    @Test
+    public void TestMergeSorterNearlySorted() {
+        Random rd = new Random(2);
+        MergeSorter sorter = new MergeSorter(100_000);
+        for (int test=0; test<20; test++) {
+            double[] array = new double[100_000];
+            for (int i=0; i<array.length; i++) {
+                array[i] = i;
+            }
+            // Swap a few values far out of place, and reverse a block.
+            for (int k=0; k<10; k++) {
+                Sort.swap(array, rd.nextInt(array.length), rd.nextInt(array.length));
+            }
+            int start = rd.nextInt(array.length - 1000);
+            for (int i=start, j=start+999; i<j; i++, j--) {
+                Sort.swap(array, i, j);
+            }
+            double[] expected = array.clone();
+            Arrays.sort(expected);
+            int left = rd.nextInt(100), right = array.length - rd.nextInt(100);
+            double[] subrange = array.clone();
+            sorter.sort(array);
+            Assert.assertArrayEquals(expected, array, 0);
+
+            double[] expectedSubrange = subrange.clone();
+            Arrays.sort(expectedSubrange, left, right);
+            sorter.sort(subrange, left, right);
+            Assert.assertArrayEquals(expectedSubrange, subrange, 0);
+        }
+    }
+
+    @Test
+    public void TestParallelSort() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[]{1, 7, ParallelSort.DEFAULT_THRESHOLD}) {
+                ParallelSort parallelSort = new ParallelSort(pool, threshold);
+                for (double[] input : getInputs()) {
+                    double[] expected = input.clone();
+                    Arrays.sort(expected);
+                    double[] array = input.clone();
+                    parallelSort.sort(array);
+                    Assert.assertArrayEquals(expected, array, 0);
+
+                    int[] intInput = new int[input.length];
+                    long[] longInput = new long[input.length];
+                    for (int i=0; i<input.length; i++) {
+                        intInput[i] = (int) (input[i] * 1000);
+                        longInput[i] = (long) (input[i] * 1e12);
+                    }
+                    int[] intExpected = intInput.clone();
+                    Arrays.sort(intExpected);
+                    parallelSort.sort(intInput);
+                    Assert.assertArrayEquals(intExpected, intInput);
+
+                    long[] longExpected = longInput.clone();
+                    Arrays.sort(longExpected);
+                    parallelSort.sort(longInput);
+                    Assert.assertArrayEquals(longExpected, longInput);
+                }
+            }
+            // Subrange
+            double[] array = {9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+            new ParallelSort(pool, 2).sort(array, 2, 8);
+            Assert.assertArrayEquals(new double[]{9, 8, 2, 3, 4, 5, 6, 7, 1, 0}, array, 0);
+            // Subranges away from the start, where the buffer only covers the range.
+            Random rd = new Random(13);
+            for (int threshold : new int[]{1, 7}) {
+                ParallelSort parallelSort = new ParallelSort(pool, threshold);
+                double[] values = new double[1_000];
+                int[] ints = new int[values.length];
+                long[] longs = new long[values.length];
+                for (int i=0; i<values.length; i++) {
+                    values[i] = rd.nextDouble();
+                    ints[i] = rd.nextInt();
+                    longs[i] = rd.nextLong();
+                }
+                double[] expected = values.clone();
+                Arrays.sort(expected, 300, 437);
+                parallelSort.sort(values, 300, 437);
+                Assert.assertArrayEquals(expected, values, 0);
+                int[] intExpected = ints.clone();
+                Arrays.sort(intExpected, 300, 437);
+                parallelSort.sort(ints, 300, 437);
+                Assert.assertArrayEquals(intExpected, ints);
+                long[] longExpected = longs.clone();
+                Arrays.sort(longExpected, 300, 437);
+                parallelSort.sort(longs, 300, 437);
+                Assert.assertArrayEquals(longExpected, longs);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void TestRadixSort() {
+        for (double[] input : getInputs()) {
+            double[] expected = input.clone();
+            Arrays.sort(expected);
+            double[] array = input.clone();
+            RadixSort.sort(array);
+            Assert.assertTrue(Arrays.equals(expected, array));
+        }
+    }
+
+    @Test
+    public void TestRadixSortSpecialValues() {
+        Random rd = new Random(3);
+        double[] special = {Double.NaN, -0.0, 0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, Double.longBitsToDouble(0xfff0000000000001L)};
+        for (int n : new int[]{10, 50, 1000, 100_000}) {
+            double[] array = new double[n];
+            for (int i=0; i<n; i++) {
+                array[i] = rd.nextInt(3) == 0 ? special[rd.nextInt(special.length)] : rd.nextGaussian() * 1e6;
+            }
+            double[] expected = array.clone();
+            Arrays.sort(expected);
+            int left = n / 10, right = n - n / 10;
+            double[] subrange = array.clone();
+            RadixSort.sort(array);
+            // Arrays.equals compares bits, so -0.0 and 0.0 must be in the same places.
+            Assert.assertTrue(Arrays.equals(expected, array));
+
+            double[] expectedSubrange = subrange.clone();
+            Arrays.sort(expectedSubrange, left, right);
+            RadixSort.sort(subrange, left, right);
+            Assert.assertTrue(Arrays.equals(expectedSubrange, subrange));
+        }
+    }
+
+    @Test
+    public void TestExternalSort() throws IOException {
+        Path directory = Files.createTempDirectory("externalSort");
+        Path input = directory.resolve("input.bin"), output = directory.resolve("output.bin");
+        try {
+            Random rd = new Random(15);
+            // Small runs and fan-in to force several runs and more than one merge pass.
+            int[][] configs = {{100, 2, 8, 1}, {64, 3, 64, 4}, {1_000, 64, 1 << 10, 2}};
+            for (double[] values : getInputs()) {
+                double[] withNegatives = new double[values.length];
+                for (int i=0; i<values.length; i++) {
+                    withNegatives[i] = rd.nextBoolean() ? values[i] : -values[i];
+                }
+                for (double[] array : new double[][] {values, withNegatives}) {
+                    for (int[] config : configs) {
+                        ExternalSort sorter = new ExternalSort();
+                        sorter.setRunSize(config[0]);
+                        sorter.setFanIn(config[1]);
+                        sorter.setBufferSize(config[2]);
+                        sorter.setParallelism(config[3]);
+                        writeDoubles(input, array);
+                        sorter.sort(input, output);
+
+                        double[] expected = array.clone();
+                        Arrays.sort(expected);
+                        Assert.assertArrayEquals(expected, readDoubles(output), 0);
+                    }
+                }
+            }
+            // Only the input and output are left, the runs are deleted.
+            try (Stream<Path> files = Files.list(directory)) {
+                Assert.assertEquals(2, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void TestExternalSortFailure() throws IOException {
+        Path directory = Files.createTempDirectory("externalSort");
+        Path input = directory.resolve("input.bin");
+        // The output can not be written, so the sort fails after the merge passes.
+        Path output = directory.resolve("missing").resolve("output.bin");
+        try {
+            Random rd = new Random(115);
+            double[] values = new double[5_000];
+            for (int i=0; i<values.length; i++) {
+                values[i] = rd.nextDouble();
+            }
+            writeDoubles(input, values);
+            for (int fanIn : new int[] {2, 64}) {
+                ExternalSort sorter = new ExternalSort();
+                sorter.setRunSize(10);
+                sorter.setFanIn(fanIn);
+                sorter.setBufferSize(64);
+                sorter.setParallelism(4);
+                sorter.setTempDirectory(directory);
+                try {
+                    sorter.sort(input, output);
+                    Assert.fail("The output directory does not exist.");
+                } catch (IOException e) {
+                    // Expected.
+                }
+                // Only the input is left, every run is deleted.
+                try (Stream<Path> files = Files.list(directory)) {
+                    Assert.assertEquals(1, files.count());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void TestSelect() {
+        for (double[] values : getInputs()) {
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+            int step = Math.max(1, values.length / 50);
+            for (int k=0; k<values.length; k+=step) {
+                double[] array = values.clone();
+                Assert.assertEquals(expected[k], Selection.select(array, k), 0);
+                for (int i=0; i<k; i++) {
+                    Assert.assertTrue(array[i] <= array[k]);
+                }
+                for (int i=k+1; i<array.length; i++) {
+                    Assert.assertTrue(array[i] >= array[k]);
+                }
+            }
+        }
+        // Subrange
+        double[] array = {9, 10, 8, 7, 6, 5, 4, 3, 2, 1};
+        Assert.assertEquals(5, Selection.select(array, 2, 7, 3), 0);
+        Assert.assertEquals(9, array[0], 0);
+        Assert.assertEquals(1, array[9], 0);
+    }
+
+    @Test
+    public void TestMedianOfMediansPivot() {
+        // The pivot has at least 3/10 of the range on either side of it.
+        for (double[] values : getInputs()) {
+            if (values.length < 100) {
+                continue;
+            }
+            double[] array = values.clone();
+            int pivot = Selection.medianOfMediansPivot(array, 0, array.length);
+            int less = 0, greater = 0;
+            for (double value : array) {
+                if (value <= array[pivot]) less++;
+                if (value >= array[pivot]) greater++;
+            }
+            Assert.assertTrue(less >= 3 * array.length / 10);
+            Assert.assertTrue(greater >= 3 * array.length / 10);
+        }
+    }
+
+    @Test
+    public void TestPartialSort() {
+        for (double[] values : getInputs()) {
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+            for (int k : new int[] {0, 1, values.length / 3, values.length}) {
+                if (k > values.length) {
+                    continue;
+                }
+                double[] array = values.clone();
+                Selection.partialSort(array, 0, array.length, k);
+                Assert.assertArrayEquals(Arrays.copyOf(expected, k), Arrays.copyOf(array, k), 0);
+            }
+        }
+    }
+
+    @Test
+    public void TestTopK() {
+        for (double[] values : getInputs()) {
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+            for (int k : new int[] {1, 10, 1_000}) {
+                TopK topK = new TopK(k);
+                topK.offer(values, 0, values.length);
+                int size = Math.min(k, values.length);
+                Assert.assertEquals(size, topK.size());
+
+                double[] largest = topK.toSortedArray();
+                for (int i=0; i<size; i++) {
+                    Assert.assertEquals(expected[values.length - 1 - i], largest[i], 0);
+                }
+                if (size > 0) {
+                    Assert.assertEquals(expected[values.length - size], topK.peek(), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestArgSort() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (double[] input : getInputs()) {
+                // The stable order, by sorting boxed indices with a stable comparator sort.
+                Integer[] boxed = new Integer[input.length];
+                for (int i=0; i<input.length; i++) {
+                    boxed[i] = i;
+                }
+                Arrays.sort(boxed, (i, j) -> Double.compare(input[i], input[j]));
+                int[] expected = new int[input.length];
+                for (int i=0; i<input.length; i++) {
+                    expected[i] = boxed[i];
+                }
+
+                Assert.assertArrayEquals(expected, ArgSort.stableArgSort(input));
+                for (int threshold : new int[]{1, 7, ParallelSort.DEFAULT_THRESHOLD}) {
+                    Assert.assertArrayEquals(expected, ArgSort.parallelArgSort(input, 0, input.length, pool, threshold));
+                }
+
+                // The unstable order is a permutation with the same keys.
+                int[] indices = ArgSort.argSort(input);
+                boolean[] seen = new boolean[input.length];
+                for (int i=0; i<input.length; i++) {
+                    Assert.assertFalse(seen[indices[i]]);
+                    seen[indices[i]] = true;
+                    Assert.assertEquals(input[expected[i]], input[indices[i]], 0);
+                }
+            }
+            // Subrange, with special values.
+            double[] keys = {5, Double.NaN, 0.0, -0.0, 3, -1, 3, 9};
+            int[] expected = {5, 3, 2, 4, 6, 1};
+            Assert.assertArrayEquals(expected, ArgSort.stableArgSort(keys, 1, 7));
+            Assert.assertArrayEquals(expected, ArgSort.parallelArgSort(keys, 1, 7, pool, 1));
+            int[] unstable = ArgSort.argSort(keys, 1, 7);
+            Assert.assertArrayEquals(new int[]{5, 3, 2}, Arrays.copyOf(unstable, 3));
+            Assert.assertEquals(1, unstable[5]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TestInvalidPivotMethod() {
+        Sort.quickSort(array1, 0, array1.length, "middle");
+    }
+
+    /**
+     * Write values as little-endian doubles, the format read by ExternalSort.
+     */
+    static void writeDoubles(Path file, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        Files.write(file, buffer.array());
+    }
+
+    static double[] readDoubles(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        double[] values = new double[buffer.remaining() / Double.BYTES];
+        buffer.asDoubleBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * Random, sorted, reversed, constant, few distinct values and organ pipe inputs, of several sizes.
+     */
+    static double[][] getInputs() {
+        Random rd = new Random(1);
+        int[] sizes = {0, 1, 2, 17, 100, 5_000};
+        double[][] inputs = new double[6 * sizes.length][];
+        int k = 0;
+        for (int n : sizes) {
+            double[] random = new double[n], sorted = new double[n], reversed = new double[n];
+            double[] constant = new double[n], fewValues = new double[n], organPipe = new double[n];
+            for (int i=0; i<n; i++) {
+                random[i] = rd.nextDouble() * 200 - 10;
+                sorted[i] = i;
+                reversed[i] = n - i;
+                constant[i] = 7;
+                fewValues[i] = rd.nextInt(4);
+                organPipe[i] = Math.min(i, n - i);
+            }
+            inputs[k++] = random;
+            inputs[k++] = sorted;
+            inputs[k++] = reversed;
+            inputs[k++] = constant;
+            inputs[k++] = fewValues;
+            inputs[k++] = organPipe;
+        }
+        return inputs;
+    }
 }